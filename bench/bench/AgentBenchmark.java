@@ -0,0 +1,71 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import games.*;
+import tournament.*;
+import util.*;
+
+/**
+ * Benchmarks of the agents whose solveGame dominates the time spent computing strategies.
+ * Agents are driven through PlayerDriver the same way GameMaster drives them, minus the thread hop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AgentBenchmark {
+
+	/**number of actions per player*/
+	@Param({"3", "10", "50", "200"})
+	public int actions;
+
+	private static final int NUM_GAMES = 16;
+
+	private ArrayList<MatrixGame> games;
+	private Player epsNE;
+	private Player hierarchy;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		Parameters param = new Parameters(100, actions, 0, 0, 0, GameType.GENERAL_SUM);
+		games = GameGenerator.generate(NUM_GAMES, param);
+		epsNE = new EpsNE();
+		hierarchy = new CognitiveHierarchy();
+		epsNE.setParameters(param.copy());
+		hierarchy.setParameters(param.copy());
+		new PlayerDriver(epsNE).run();
+		new PlayerDriver(hierarchy).run();
+	}
+
+	/**
+	 * Have an agent solve the next game as the row player
+	 * @param player the agent
+	 * @return the strategy
+	 */
+	private MixedStrategy solve(Player player){
+		next = (next + 1) % NUM_GAMES;
+		player.setGame(next);
+		player.setGame(games.get(next).view());
+		player.setPlayerNumber(1);
+		PlayerDriver driver = new PlayerDriver(PlayerState.SOLVE, player);
+		driver.run();
+		return driver.getSolution();
+	}
+
+	@Benchmark
+	public MixedStrategy epsNE(){
+		return solve(epsNE);
+	}
+
+	@Benchmark
+	public MixedStrategy cognitiveHierarchy(){
+		return solve(hierarchy);
+	}
+}
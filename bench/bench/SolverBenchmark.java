@@ -0,0 +1,84 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import games.*;
+import util.*;
+
+/**
+ * Benchmarks of the SolverUtils routines the agents and the tournament call for every game.
+ * Games are generated the same way as in the tournament so every run sees the same payoffs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+	/**number of actions per player*/
+	@Param({"3", "10", "50", "200"})
+	public int actions;
+
+	private static final int NUM_GAMES = 16;
+
+	private ArrayList<MatrixGame> games;
+	private MixedStrategy[] rowStrats;
+	private MixedStrategy[] colStrats;
+	private double[] result = new double[2];
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		games = GameGenerator.generate(NUM_GAMES, new Parameters(100, actions, 0, 0, 0, GameType.GENERAL_SUM));
+		rowStrats = new MixedStrategy[NUM_GAMES];
+		colStrats = new MixedStrategy[NUM_GAMES];
+		for(int i = 0; i < NUM_GAMES; i++){
+			rowStrats[i] = SolverUtils.computeQuantalBestResponse(games.get(i), 0, new MixedStrategy(actions), 0.5);
+			colStrats[i] = SolverUtils.computeQuantalBestResponse(games.get(i), 1, new MixedStrategy(actions), 0.5);
+		}
+	}
+
+	/**
+	 * Cycle through the games so the benchmark is not tuned to a single payoff matrix
+	 * @return the index of the next game
+	 */
+	private int nextGame(){
+		next = (next + 1) % NUM_GAMES;
+		return next;
+	}
+
+	@Benchmark
+	public double[] expectedPayoffs(){
+		int g = nextGame();
+		return SolverUtils.expectedPayoffs(rowStrats[g], colStrats[g], games.get(g), result);
+	}
+
+	@Benchmark
+	public MixedStrategy bestResponse(){
+		int g = nextGame();
+		return SolverUtils.computeBestResponse(games.get(g), 0, colStrats[g]);
+	}
+
+	@Benchmark
+	public MixedStrategy quantalBestResponse(){
+		int g = nextGame();
+		return SolverUtils.computeQuantalBestResponse(games.get(g), 0, colStrats[g], 2.5);
+	}
+
+	@Benchmark
+	public MixedStrategy nemesis(){
+		int g = nextGame();
+		return SolverUtils.computeNemesis(games.get(g), 0, rowStrats[g]);
+	}
+
+	@Benchmark
+	public MixedStrategy robust(){
+		int g = nextGame();
+		return SolverUtils.computeRobust(games.get(g), 0, 0.1);
+	}
+}
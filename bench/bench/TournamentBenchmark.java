@@ -0,0 +1,69 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import games.*;
+import tournament.*;
+import util.*;
+
+/**
+ * Benchmarks of game generation and of a whole tournament setting, run by GameMaster.playSetting
+ * exactly as the tournament runs it: generate and obfuscate the games, initialize the agents,
+ * solve the games on the solve pool and strategy cache, play the round-robin and analyse the
+ * exploitability of the agents. The setting plays GameMaster's number of games, so numGames
+ * only sizes the generation benchmark.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TournamentBenchmark {
+
+	/**number of actions per player*/
+	@Param({"3", "10", "50", "200"})
+	public int actions;
+
+	/**number of games in the setting*/
+	@Param({"100"})
+	public int numGames;
+
+	/**mixing rates of the exploitability analysis, as in the first setting of GameMaster*/
+	private static final double[] RATES = {0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+
+	private Parameters param;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		param = new Parameters(100, actions, 0, 0, 0, GameType.GENERAL_SUM);
+	}
+
+	@Setup(Level.Iteration)
+	public void clearCache(){
+		GameMaster.clearStrategyCache();//every iteration solves the games from scratch
+	}
+
+	@Benchmark
+	public ArrayList<MatrixGame> generate(){
+		return GameGenerator.generate(numGames, param);
+	}
+
+	@Benchmark
+	public double[][] setting(){
+		ArrayList<Player> players = new ArrayList<Player>();
+		players.add(new UniformRandom());
+		players.add(new EpsNE());
+		players.add(new MaxMin());
+		players.add(new Punish());
+		players.add(new Robust(0.1));
+		players.add(new Adversary(0.1));
+		players.add(new Resilient(2.5,0));
+		players.add(new Resilient(2.5,0.5));
+		players.add(new Resilient(2.5,1.0));
+		return GameMaster.playSetting(players, param, RATES).getStatistics().getPayoffMatrix();
+	}
+}
@@ -0,0 +1,5 @@
+/**
+ * JMH benchmarks of the solver and tournament hot paths, built with {@code ant bench}
+ * @since 1.0
+ */
+package bench;
@@ -2,6 +2,7 @@ package games;
 
 import util.MTRandom;
 import util.RandomNumberGenerator;
+import util.RandomStreams;
 
 import java.io.*;
 import java.text.DecimalFormat;
@@ -20,14 +21,22 @@ public class EGAUtils {
   // this is a Mersenne Twister generator, which has a very long period and other advangtages oover
   // the standard java Random implementation.
   // this implementation is an extension of the base java.Random class
+  // it is shared by every thread, parallel code should use random() instead
   public static final Random rand = new Random();
 
   // a different implementation of the Mersenne Twister random number generator
   // this version does not extend the java.Random, so it is a bit less useable
   // however, this version has utilities for generating samples from additioal distributions
   // (exp, gamma, chi-squared, poisson, beta...)
+  // its methods are synchronized, parallel code should use RandomStreams.generator() instead
   public static final RandomNumberGenerator rng = new RandomNumberGenerator();
 
+  // random number generator of the calling thread, never shared with another thread
+  // (see util.RandomStreams for streams that are reproducible from a seed)
+  public static Random random() {
+    return RandomStreams.current();
+  }
+
   // keep a collection of these available for general use so that we don't recreate them so much
   private static final List<StringBuilder> stringBuilders = new ArrayList<StringBuilder>();
 
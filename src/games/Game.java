@@ -112,9 +112,18 @@ public abstract class Game {
    * @return a random profile of this game
    */
   public int[] getRandomProfile() {
+    return getRandomProfile(EGAUtils.random());
+  }
+
+  /**
+   * returns a random profile of this game
+   * @param rng source of the random numbers
+   * @return a random profile of this game
+   */
+  public int[] getRandomProfile(Random rng) {
     int[] profile = new int[nPlayers];
     for (int pl = 0; pl < nPlayers; pl++) {
-      profile[pl] = EGAUtils.rand.nextInt(nActions[pl]) + 1;
+      profile[pl] = rng.nextInt(nActions[pl]) + 1;
     }
     return profile;
   }
@@ -124,9 +133,18 @@ public abstract class Game {
    * @param profileHolder the profile holder
    */
   public void getRandomProfile(int[] profileHolder) {
+    getRandomProfile(profileHolder, EGAUtils.random());
+  }
+
+  /**
+   * returns a random profile in the given object
+   * @param profileHolder the profile holder
+   * @param rng source of the random numbers
+   */
+  public void getRandomProfile(int[] profileHolder, Random rng) {
     if (profileHolder.length != nPlayers) return;
     for (int pl = 0; pl < nPlayers; pl++) {
-      profileHolder[pl] = EGAUtils.rand.nextInt(nActions[pl]) + 1;
+      profileHolder[pl] = rng.nextInt(nActions[pl]) + 1;
     }
   }
 
@@ -146,6 +164,19 @@ public abstract class Game {
     return new OutcomeIterator(this);
   }
 
+  /**
+   * Visit every outcome of this game in iterator order, passing the flat index along
+   * with the actions so the visitor does not have to translate them.
+   * @param visitor called once per outcome
+   */
+  public void forEachOutcome(OutcomeVisitor visitor) {
+    OutcomeIterator itr = iterator();
+    while (itr.hasNext()) {
+      int[] outcome = itr.next();
+      visitor.visit(outcome, itr.getIndex());
+    }
+  }
+
   /**
    * Get the payoff range
    * @return the difference between the max and min payoffs in the game
@@ -2,6 +2,8 @@ package games;
 
 import java.io.File;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import games.*;
 import util.*;
 /**
@@ -10,6 +12,8 @@ import util.*;
  */
 
 public class GameGenerator {
+	/**keys of the random streams of classA, classG and classZ, derived from the game index*/
+	private static final long CLASS_A = 0x41, CLASS_G = 0x47, CLASS_Z = 0x5A;
 	/**
 	 * Generates zero sum games using Gamut.
 	 * By default games have 20 actions for both players with payoffs ranging from -100 to 100
@@ -287,17 +291,17 @@ public class GameGenerator {
 	
 	/**
 	 * Generates Class A Games
+	 * Game i draws from a stream derived from i alone, so it is the same on every run.
 	 * @param numGames the number of games to generate.
 	 * @param p Settings
 	 * @return the games
 	 */
 	public static ArrayList<MatrixGame> classA(int numGames, Parameters p) {
-		Random r = new Random();
 		ArrayList<MatrixGame> games = new ArrayList<MatrixGame>();
 		int[] actions = {10,10};
 		int[] outcome = {0,0};
 		for(int i = 0; i < numGames; i++){
-			r.setSeed(i);
+			Random r = RandomStreams.derive(i, CLASS_A);
 			MatrixGame g = new MatrixGame(2,actions);
 			g.setDescription(""+i);
 			for(int row = 1; row <= actions[0]; row++){
@@ -332,19 +336,19 @@ public class GameGenerator {
 	
 	/**
 	 * Generates general sum games
+	 * Game i draws from a stream derived from i alone, so it is the same on every run.
 	 * @param numGames the number of games to generate.
 	 * @param p set of parameters
 	 * @return the games
 	 */
 	public static ArrayList<MatrixGame> classG(int numGames, Parameters p) {
-		Random r = new Random();
 		ArrayList<MatrixGame> games = new ArrayList<MatrixGame>();
 		int[] actions = {p.getNumActions(),p.getNumActions()};
 		int[] outcome = {0,0};
 		double[] values = {0.0,0.0};
 		int max = p.getMaxPayoff();
 		for(int i = 0; i < numGames; i++){
-			r.setSeed(i);
+			Random r = RandomStreams.derive(i, CLASS_G);
 			MatrixGame g = new MatrixGame(2,actions);
 			g.setDescription(""+i);
 			for(int row = 1; row <= actions[0]; row++){
@@ -372,19 +376,19 @@ public class GameGenerator {
 	
 	/**
 	 * Generates zero sum games
+	 * Game i draws from a stream derived from i alone, so it is the same on every run.
 	 * @param numGames the number of games to generate.
 	 * @param p set of parameters
 	 * @return the games
 	 */
 	public static ArrayList<MatrixGame> classZ(int numGames, Parameters p) {
-		Random r = new Random();
 		ArrayList<MatrixGame> games = new ArrayList<MatrixGame>();
 		int[] actions = {p.getNumActions(),p.getNumActions()};
 		int[] outcome = {0,0};
 		double[] values = {0.0,0.0};
 		int max = p.getMaxPayoff();
 		for(int i = 0; i < numGames; i++){
-			r.setSeed(i);
+			Random r = RandomStreams.derive(i, CLASS_Z);
 			MatrixGame g = new MatrixGame(2,actions);
 			g.setDescription(""+i);
 			for(int row = 1; row <= actions[0]; row++){
@@ -465,73 +469,93 @@ public class GameGenerator {
 		}
 	}
 	/**
-	 * Add uncertainty to a all games
+	 * Add uncertainty to a all games. Every game is seeded from its own description
+	 * so the games are changed in parallel with the same result as one at a time.
 	 * @param games the games to change
 	 * @param p settings
 	 */
 	public static void obfuscate(ArrayList<MatrixGame> games, Parameters p){
-		for(int i = 0; i < games.size(); i++)
-			obfuscate(games.get(i),p);
+		games.parallelStream().forEach(g -> obfuscate(g, p));
 	}
 	
 	/**
-	 * Generates zero sum games
+	 * Generates games of the type given by the parameters.
+	 * Each game is seeded by its index, so the games are built in parallel
+	 * and are the same as when generated one at a time.
 	 * @param numGames the number of games to generate.
 	 * @param p set of parameters
 	 * @return the games
 	 */
 	public static ArrayList<MatrixGame> generate(int numGames, Parameters p) {
-		Random r = new Random();
+		MatrixGame[] games = new MatrixGame[numGames];
+		IntStream.range(0, numGames).parallel().forEach(i -> games[i] = generateGame(i, p));
+		return new ArrayList<MatrixGame>(Arrays.asList(games));
+	}
+
+	/**
+	 * Lazily generates games, each game is only created when the stream reaches it.
+	 * Same games as generate(numGames, p)
+	 * @param numGames the number of games to generate.
+	 * @param p set of parameters
+	 * @return a stream of the games in order
+	 */
+	public static Stream<MatrixGame> stream(int numGames, Parameters p) {
+		return IntStream.range(0, numGames).mapToObj(i -> generateGame(i, p));
+	}
+
+	/**
+	 * Generates a single game
+	 * @param i the game number, used as the seed and description
+	 * @param p set of parameters
+	 * @return the game
+	 */
+	public static MatrixGame generateGame(int i, Parameters p) {
+		Random r = new Random(i);
 		GameType type = p.getGameType();
-		ArrayList<MatrixGame> games = new ArrayList<MatrixGame>();
 		int[] actions = {p.getNumActions(),p.getNumActions()};
 		int[] outcome = {0,0};
 		double[] values = {0.0,0.0};
 		int max = p.getMaxPayoff();
-		for(int i = 0; i < numGames; i++){
-			r.setSeed(i);
-			MatrixGame g = new MatrixGame(2,actions);
-			g.setDescription(""+i);
-			if(type == GameType.RISK){
-				for(int row = 1; row <= actions[0]; row++){
-					double base = 50 - (row-1) * 2;
-					for(int col = 1; col <= actions[1]; col++){
-						outcome[0] = row;
-						outcome[1] = col;
-						g.setPayoff(outcome,0, base + r.nextGaussian()*(row*2));
-						outcome[0] = col;
-						outcome[1] = row;
-						g.setPayoff(outcome,1, base + r.nextGaussian()*(row*2));
-					}
+		MatrixGame g = new MatrixGame(2,actions);
+		g.setDescription(""+i);
+		if(type == GameType.RISK){
+			for(int row = 1; row <= actions[0]; row++){
+				double base = 50 - (row-1) * 2;
+				for(int col = 1; col <= actions[1]; col++){
+					outcome[0] = row;
+					outcome[1] = col;
+					g.setPayoff(outcome,0, base + r.nextGaussian()*(row*2));
+					outcome[0] = col;
+					outcome[1] = row;
+					g.setPayoff(outcome,1, base + r.nextGaussian()*(row*2));
 				}
-				/*for(int col = 1; col <= actions[1]; col++){
-					double base = 50 - col / 2;
-					for(int row = 1; row <= actions[0]; row++){
-						outcome[0] = row;
-						outcome[1] = col;
-						g.setPayoff(outcome,1, base + r.nextGaussian()*(col+1));
-					}
-				}*/
 			}
-			else{
+			/*for(int col = 1; col <= actions[1]; col++){
+				double base = 50 - col / 2;
 				for(int row = 1; row <= actions[0]; row++){
-					for(int col = 1; col <= actions[1]; col++){
-						outcome[0] = row;
-						outcome[1] = col;
-						if(type == GameType.ZERO_SUM){
-							values[0] = r.nextDouble()*max*2.0 - max;
-							values[1] = values[0] * -1;
-						}
-						else{
-							values[0] = r.nextDouble()*max;
-							values[1] = r.nextDouble()*max;
-						}
-						g.setPayoffs(outcome,values);	
+					outcome[0] = row;
+					outcome[1] = col;
+					g.setPayoff(outcome,1, base + r.nextGaussian()*(col+1));
+				}
+			}*/
+		}
+		else{
+			for(int row = 1; row <= actions[0]; row++){
+				for(int col = 1; col <= actions[1]; col++){
+					outcome[0] = row;
+					outcome[1] = col;
+					if(type == GameType.ZERO_SUM){
+						values[0] = r.nextDouble()*max*2.0 - max;
+						values[1] = values[0] * -1;
+					}
+					else{
+						values[0] = r.nextDouble()*max;
+						values[1] = r.nextDouble()*max;
 					}
+					g.setPayoffs(outcome,values);	
 				}
 			}
-			games.add(g);
 		}
-		return games;
+		return g;
 	}
 }
@@ -1,6 +1,6 @@
 package games;
 
-import util.GenericTensor;
+import util.IntTensor;
 
 /**
  * Abstract class for observing a game matrix.
@@ -20,7 +20,7 @@ public abstract class GameObserver {
   protected int profilesObserved = 0;
 
   // Counts for the number of observations of each outcome
-  protected GenericTensor<Integer> observationCounts = null;
+  protected IntTensor observationCounts = null;
 
   // Flag for deterministic/stochastic observations
   protected boolean deterministic = false;
@@ -76,7 +76,7 @@ public abstract class GameObserver {
     if (densityBound > 0) {
       bound = (int) Math.ceil(densityBound * game.getNumProfiles());
     }
-    observationCounts = new GenericTensor<Integer>(game.getNumActions());
+    observationCounts = new IntTensor(game.getNumActions());
     initObsCounts();
   }
 
@@ -98,9 +98,7 @@ public abstract class GameObserver {
    * Initialize all observation counts to 0
    */
   public void initObsCounts() {
-    for (int i = 0; i < observationCounts.size(); i++) {
-      observationCounts.setValue(0, i);
-    }
+    observationCounts.fill(0);
   }
   /**
    * get the default payoff
@@ -240,7 +238,7 @@ public abstract class GameObserver {
       if (currSamples < 1) {
         profilesObserved++;
       }
-      observationCounts.setValue(observationCounts.getValue(outcome) + 1, outcome);
+      observationCounts.increment(outcome);
     }
     return samplePayoffs(outcome);
   }
@@ -1,16 +1,36 @@
 package games;
 
-import util.GenericTensor;
 import java.util.Arrays;
 import util.*;
 
 /**
  * Class implements the straightforward normal form game.
+ * <p>
+ * Payoffs are kept in a single dense array laid out player-major: the block for
+ * player p starts at {@code p * getNumProfiles()} and within a block outcomes are
+ * stored in the same order as {@link util.GenericTensor} (the first player's action
+ * is the most significant index). For a two player game this means each player's
+ * payoff matrix is stored row-major with a row stride of {@code getNumActions(1)}.
+ * </p>
+ * <p>
+ * {@link #view()} hands out a game that shares the payoff array instead of copying it.
+ * The array is copied on the first write by any game sharing it (copy-on-write), so
+ * a view behaves exactly like a copy made with {@link #MatrixGame(Game)}.
+ * </p>
  */
 
 public class MatrixGame extends Game {
 
-  private final GenericTensor<Payoffs> payoffs;
+  // a default value for unset payoffs (same as Payoffs)
+  private static final double DEFAULT_VALUE = Double.NEGATIVE_INFINITY;
+
+  private double[] payoffs;
+  // true when the payoff array may be shared with a view, it must be copied before a write
+  private boolean shared;
+  // summary of the payoffs, null until requested and after every change
+  private volatile PayoffStatistics statistics;
+  // stride of each player's action in the outcome index
+  private final int[] strides;
 
   /**
    * Constructor for a new matrix game.
@@ -19,8 +39,9 @@ public class MatrixGame extends Game {
    */
   public MatrixGame(int numPlayers, int[] numActions){
     super(numPlayers, numActions);
-    payoffs = new GenericTensor<Payoffs>(numActions);
-    init();
+    strides = IndexCursor.computeStrides(nActions);
+    payoffs = new double[nPlayers * nProfiles];
+    Arrays.fill(payoffs, DEFAULT_VALUE);
   }
 
   /**
@@ -29,25 +50,181 @@ public class MatrixGame extends Game {
    */
   public MatrixGame(Game game) {
     super(game.getNumPlayers(), game.getNumActions());
-    payoffs = new GenericTensor<Payoffs>(nActions);
-    init();
+    strides = IndexCursor.computeStrides(nActions);
+    if (game instanceof MatrixGame) {
+      payoffs = ((MatrixGame) game).payoffs.clone();
+    } else {
+      payoffs = new double[nPlayers * nProfiles];
+      Arrays.fill(payoffs, DEFAULT_VALUE);
+      game.forEachOutcome((outcome, index) -> {
+        double[] values = game.getPayoffs(outcome);
+        int n = Math.min(nPlayers, values.length);
+        for (int pl = 0; pl < n; pl++) {
+          payoffs[pl * nProfiles + index] = values[pl];
+        }
+      });
+    }
+  }
+
+  /**
+   * Create a game sharing the payoffs of another game
+   * @param game the game to share with
+   * @param data the shared payoff array
+   */
+  private MatrixGame(MatrixGame game, double[] data) {
+    super(game.nPlayers, game.nActions);
+    strides = game.strides;
+    payoffs = data;
+    shared = true;
+    statistics = game.statistics;
+  }
+
+  /**
+   * A copy of this game that shares the payoff array until either game changes a payoff.
+   * Much cheaper than {@link #MatrixGame(Game)} when the copy is only read, as is the
+   * case for nearly every agent. Like the copy constructor the description is not copied.
+   * A game must not be changed on one thread while it is being viewed on another.
+   * @return the copy-on-write view
+   */
+  public MatrixGame view() {
+    shared = true;
+    return new MatrixGame(this, payoffs);
+  }
 
-    OutcomeIterator itr = game.iterator();
-    while(itr.hasNext()) {
-      int[] outcome = itr.next();
-      setPayoffs(outcome, game.getPayoffs(outcome));
+  /**
+   * Take a private copy of the payoff array if it is shared and forget the statistics
+   */
+  private void beforeWrite() {
+    statistics = null;
+    if (shared) {
+      payoffs = payoffs.clone();
+      shared = false;
     }
   }
 
   /**
-   * Create the initial payoff objects in the data structure
+   * Translate an outcome into its flat index (same ordering as GenericTensor).
+   * Actions are numbered from 1.
+   * @param outcome an array containing the actions chosen by each player
+   * @return the outcome index
    */
-  private void init() {
-    // we need to initialize all of the payoff objects because the tensor does not
-    // have access to this information
-    for (int i = 0; i < payoffs.size(); i++) {
-      payoffs.setValue(new Payoffs(nPlayers), i);
+  public int getOutcomeIndex(int[] outcome) {
+    int index = 0;
+    for (int i = 0; i < nPlayers; i++) {
+      index += (outcome[i] - 1) * strides[i];
     }
+    return index;
+  }
+
+  /**
+   * The distance in the flat outcome index between two consecutive actions of a player.
+   * For a two player game the row stride is {@code getStride(0)} and the column stride is 1.
+   * @param player the player
+   * @return the stride
+   */
+  public int getStride(int player) {
+    return strides[player];
+  }
+
+  /**
+   * Offset of a player's payoff block inside {@link #getPayoffData()} and {@link #getSharedPayoffData()}
+   * @param player the player
+   * @return the offset
+   */
+  public int getOffset(int player) {
+    return player * nProfiles;
+  }
+
+  /**
+   * All the payoffs in the layout described above. Agents may change the array freely,
+   * it is a copy and changes do not reach the game; use the setters to change payoffs.
+   * @return a copy of the payoff array
+   */
+  public double[] getPayoffData() {
+    return payoffs.clone();
+  }
+
+  /**
+   * Direct access to the payoff store, for the solver kernels (SolverUtils, the solvers in
+   * util, the tournament's analysis) that read it once per game. The array is shared with
+   * every view of the game, including the tournament's own copies, so it must never be
+   * written; agents should use {@link #getPayoffData()} instead.
+   * @return the backing payoff array
+   */
+  public double[] getSharedPayoffData() {
+    return payoffs;
+  }
+
+  /**
+   * Returns the payoff of a player at a flat outcome index
+   * @param index the outcome index
+   * @param player the player
+   * @return the payoff
+   */
+  public double getPayoffAt(int index, int player) {
+    return payoffs[player * nProfiles + index];
+  }
+
+  /**
+   * Returns the payoff of a player in a two player game
+   * @param row the row player's action (starts at 1)
+   * @param col the column player's action (starts at 1)
+   * @param player the player whose payoff should be returned
+   * @return the payoff
+   */
+  public double getPayoff(int row, int col, int player) {
+    return payoffs[player * nProfiles + (row - 1) * strides[0] + col - 1];
+  }
+
+  /**
+   * Sets the payoff of a player in a two player game
+   * @param row the row player's action (starts at 1)
+   * @param col the column player's action (starts at 1)
+   * @param player the player whose payoff should be set
+   * @param value the amount of the payoff
+   */
+  public void setPayoff(int row, int col, int player, double value) {
+    beforeWrite();
+    payoffs[player * nProfiles + (row - 1) * strides[0] + col - 1] = value;
+  }
+
+  /**
+   * Summary statistics of the payoffs. Computed on the first call and kept until a payoff
+   * is changed, so repeated calls by agents solving the same game are free.
+   * @return the statistics
+   */
+  public PayoffStatistics getStatistics() {
+    PayoffStatistics s = statistics;
+    if (s == null) {
+      s = new PayoffStatistics(this);
+      statistics = s;
+    }
+    return s;
+  }
+
+  /**
+   * Get the maximum and minimum payoffs for the game over all players: [max, min]
+   * @return the extreme payoffs
+   */
+  public double[] getExtremePayoffs() {
+    PayoffStatistics s = getStatistics();
+    double max = Double.NEGATIVE_INFINITY;
+    double min = Double.POSITIVE_INFINITY;
+    for (int pl = 0; pl < nPlayers; pl++) {
+      max = Math.max(max, s.getMax(pl));
+      min = Math.min(min, s.getMin(pl));
+    }
+    return new double[] {max, min};
+  }
+
+  /**
+   * Get the maximum and minimum payoffs for a particular player
+   * @param player the player number
+   * @return the extreme payoffs
+   */
+  public double[] getExtremePayoffs(int player) {
+    PayoffStatistics s = getStatistics();
+    return new double[] {s.getMax(player), s.getMin(player)};
   }
 
   /**
@@ -56,7 +233,22 @@ public class MatrixGame extends Game {
    * @return the payoffs
    */
   public double[] getPayoffs(int[] outcome){
-    return payoffs.getValue(outcome).getPayoffs();
+    int index = getOutcomeIndex(outcome);
+    double[] values = new double[nPlayers];
+    for (int pl = 0; pl < nPlayers; pl++) {
+      values[pl] = payoffs[pl * nProfiles + index];
+    }
+    return values;
+  }
+
+  /**
+   * Returns a payoff for a given player without creating the payoff array
+   * @param outcome action choices for all players
+   * @param player  player whose payoff to return
+   * @return the payoff
+   */
+  public double getPayoff(int[] outcome, int player) {
+    return payoffs[player * nProfiles + getOutcomeIndex(outcome)];
   }
 
   /**
@@ -67,7 +259,9 @@ public class MatrixGame extends Game {
    * @param value     the amount of the payoff
    */
   public void setPayoff(int[] outcome, int player, double value){
-    payoffs.getValue(outcome).setPayoff(player, value);
+    if (player >= nPlayers) return;
+    beforeWrite();
+    payoffs[player * nProfiles + getOutcomeIndex(outcome)] = value;
   }
 
   /**
@@ -76,7 +270,12 @@ public class MatrixGame extends Game {
    * @param values payoff values for each player
    */
   public void setPayoffs(int[] outcome, double[] values){
-    payoffs.getValue(outcome).setPayoffs(values);
+    int index = getOutcomeIndex(outcome);
+    int n = Math.min(nPlayers, values.length);
+    beforeWrite();
+    for (int pl = 0; pl < n; pl++) {
+      payoffs[pl * nProfiles + index] = values[pl];
+    }
   }
   /**
    * print all of the outcomes plus payoffs
@@ -2,16 +2,25 @@ package games;
 
 import java.util.*;
 
+import util.AliasSampler;
+
 /**
  * A class the encapsulates the notion of a mixed strategy:
  * the probability of playing each action, summing to 1
  * Note: strategies are labeled 1..numActions
+ * <p>
+ * A strategy can also be a read only view of probabilities stored inside a larger array
+ * (see {@link #view(double[], int, int)}); views throw UnsupportedOperationException when modified.
+ * </p>
  */
 
 public final class MixedStrategy {
 
   private final int nActions;
   private final double[] probs;
+  /** index of action 0 in probs, 0 unless this is a view */
+  private final int offset;
+  private final boolean view;
 
   /**
    * Create a new mixed strategy object representing these probabilities
@@ -21,6 +30,26 @@ public final class MixedStrategy {
     this.probs = new double[probs.length];
     System.arraycopy(probs, 0, this.probs, 0, probs.length);
     this.nActions = probs.length - 1;
+    this.offset = 0;
+    this.view = false;
+  }
+
+  private MixedStrategy(double[] data, int offset, int nActions) {
+    this.probs = data;
+    this.offset = offset;
+    this.nActions = nActions;
+    this.view = true;
+  }
+
+  /**
+   * Read only view of probabilities stored in a larger array, nothing is copied
+   * @param data the array holding the probabilities
+   * @param offset index of action 0, the probability of action a is data[offset + a]
+   * @param nActions the number of actions
+   * @return the view
+   */
+  public static MixedStrategy view(double[] data, int offset, int nActions) {
+    return new MixedStrategy(data, offset, nActions);
   }
 
   /*public MixedStrategy(MixedStrategy ms){
@@ -35,6 +64,8 @@ public final class MixedStrategy {
   public MixedStrategy(int nActions) {
     this.nActions = nActions;
     this.probs = new double[nActions + 1];
+    this.offset = 0;
+    this.view = false;
     Arrays.fill(probs, 1d / (double) nActions);
     probs[0] = 0d;
   }
@@ -48,12 +79,16 @@ public final class MixedStrategy {
   public MixedStrategy(int nActions, double initialValue) {
     this.nActions = nActions;
     this.probs = new double[nActions + 1];
+    this.offset = 0;
+    this.view = false;
     Arrays.fill(probs, initialValue);
     probs[0] = 0d;
   }
   public MixedStrategy(MixedStrategy a, MixedStrategy b, double w) {
     this.nActions = a.getNumActions();
     this.probs = new double[nActions + 1];
+    this.offset = 0;
+    this.view = false;
     //Arrays.fill(probs, initialValue);
     probs[0] = 0d;
     for (int i = 1; i < probs.length; i++) {
@@ -76,7 +111,7 @@ public final class MixedStrategy {
    */
   public double getProb(int action) {
     if (action > 0) {
-      return probs[action];
+      return probs[offset + action];
     } else {
       return 0;
     }
@@ -84,16 +119,51 @@ public final class MixedStrategy {
 
   /**
    * Return all action probabilities as an array
+   * (a copy for views, use getData and getOffset to read a view without copying)
    * @return the action probabilities
    */
   public double[] getProbs() {
+    if (view) {
+      double[] copy = Arrays.copyOfRange(probs, offset, offset + nActions + 1);
+      copy[0] = 0d;
+      return copy;
+    }
     return probs;
   }
 
+  /**
+   * The array backing the probabilities, read only
+   * @return the array, the probability of action a is at getOffset() + a
+   */
+  public double[] getData() {
+    return probs;
+  }
+
+  /**
+   * Index of action 0 in getData()
+   * @return the offset, 0 unless this is a view
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * Whether this strategy is a read only view
+   * @return true for views
+   */
+  public boolean isView() {
+    return view;
+  }
+
+  private void checkWritable() {
+    if (view) throw new UnsupportedOperationException("strategy view is read only");
+  }
+
   /**
    * Resets the strategy to the uniform strategy
    */
   public void setUniform() {
+    checkWritable();
     Arrays.fill(probs, 1d / (double) (probs.length - 1));
     probs[0] = 0d;
   }
@@ -102,16 +172,44 @@ public final class MixedStrategy {
    * Resets the mixed strategy to a randomly-chosen strategy
    */
   public void setRandom() {
+    setRandom(EGAUtils.random());
+  }
+
+  /**
+   * Resets the mixed strategy to a randomly-chosen strategy
+   * @param rng source of the random numbers
+   */
+  public void setRandom(Random rng) {
+    checkWritable();
     for (int i = 1; i < probs.length; i++) {
-      probs[i] = EGAUtils.rand.nextDouble();
+      probs[i] = rng.nextDouble();
     }
     normalize();
   }
 
+  /**
+   * Alias table for drawing actions from this strategy in constant time.
+   * Build it once and keep it, it does not follow later changes to the strategy.
+   * @return the sampler
+   */
+  public AliasSampler sampler() {
+    return new AliasSampler(probs, offset, nActions);
+  }
+
+  /**
+   * Draw an action from this strategy, building a sampler each call (use sampler() for many draws)
+   * @param rng the random number generator
+   * @return the action, starting at 1
+   */
+  public int sampleAction(Random rng) {
+    return sampler().sample(rng);
+  }
+
   /**
    * Set all probabilities to zero
    */
   public void setZeros() {
+    checkWritable();
     Arrays.fill(probs, 0d);
   }
 
@@ -121,6 +219,7 @@ public final class MixedStrategy {
    * @param prob the probability to set
    */
   public void setProb(int action, double prob) {
+    checkWritable();
     if (action > 0) {
       probs[action] = prob;
     }
@@ -131,6 +230,7 @@ public final class MixedStrategy {
    * @param probs the probabilities
    */
   public void setProbs(double[] probs) {
+    checkWritable();
     if (probs.length - 1 != nActions) {
       System.err.println("Warning: trying to set mixed strategy with invalid number of actions!");
       return;
@@ -143,17 +243,19 @@ public final class MixedStrategy {
    * @param ms the mixed strategy
    */
   public void setProbs(MixedStrategy ms) {
+    checkWritable();
     if (ms.getNumActions() != nActions) {
       System.err.println("Warning: trying to copy mixed strategy with invalid number of actions!");
       return;
     }
-    System.arraycopy(ms.getProbs(), 1, this.probs, 1, probs.length - 1);
+    System.arraycopy(ms.getData(), ms.getOffset() + 1, this.probs, 1, probs.length - 1);
   }
 
   /**
    * Normalize the vector to sum to 1
    */
   public void normalize() {
+    checkWritable();
     probs[0] = 0d;
     double sum = 0d;
     double countzeroone = 0;
@@ -190,6 +292,7 @@ public final class MixedStrategy {
    * @param payoffs payoffs for each pure strategy
    */
   public void setBestResponse(double[] payoffs) {
+    checkWritable();
     if (payoffs.length != probs.length) return;
 
     double max = Double.NEGATIVE_INFINITY;
@@ -215,6 +318,7 @@ public final class MixedStrategy {
    * @param delta see above
    */
   public void mixWithUniform(double delta) {
+    checkWritable();
     double uniformProb = delta / nActions;
     for (int i = 1; i <= nActions; i++) {
       probs[i] *= (1 - delta);
@@ -228,7 +332,7 @@ public final class MixedStrategy {
    */
   public boolean isValid() {
     double sum = 0;
-    for (int i = 1; i < probs.length; i++) {
+    for (int i = offset + 1; i <= offset + nActions; i++) {
       sum += probs[i];
     }
     return sum > 0.999d && sum < 1.001d;
@@ -241,11 +345,11 @@ public final class MixedStrategy {
   public String toString() {
     StringBuilder sb = EGAUtils.getSB();
     sb.append("{");
-    for (int i = 1; i < probs.length - 1; i++) {
+    for (int i = offset + 1; i < offset + nActions; i++) {
       sb.append(probs[i]);
       sb.append(", ");
     }
-    sb.append(probs[probs.length - 1]);
+    sb.append(probs[offset + nActions]);
     sb.append("}");
     String tmp = sb.toString();
     EGAUtils.returnSB(sb);
@@ -254,11 +358,11 @@ public final class MixedStrategy {
 
   public String toStringSpaces() {
     StringBuilder sb = EGAUtils.getSB();
-    for (int i = 1; i < probs.length - 1; i++) {
+    for (int i = offset + 1; i < offset + nActions; i++) {
       sb.append(probs[i]);
       sb.append(" ");
     }
-    sb.append(probs[probs.length - 1]);
+    sb.append(probs[offset + nActions]);
     String tmp = sb.toString();
     EGAUtils.returnSB(sb);
     return tmp;
@@ -1,18 +1,28 @@
 package games;
 
-import util.GenericTensor;
+import util.DoubleTensor;
+import util.IndexCursor;
+import util.ProfileSampler;
 
 import java.util.*;
 
 /**
  * Represents a distribution over outcomes in a game
+ * <p>
+ * A distribution built from mixed strategies is kept in product form: only the probabilities
+ * of each player's strategy are stored and the probability of an outcome is their product.
+ * The joint tensor (one entry per outcome) is only created when the distribution is changed
+ * outcome by outcome, so games with many players can be evaluated without allocating it.
+ * </p>
  */
 
 public final class OutcomeDistribution {
 
   private final int nPlayers;
   private final int[] nActions;
-  private final GenericTensor<Double> probs;
+  private DoubleTensor probs;
+  // per player probabilities (index 0 unused) when in product form, otherwise null
+  private double[][] factors;
   
   /**
    * copy constructor
@@ -21,13 +31,14 @@ public final class OutcomeDistribution {
   public OutcomeDistribution(OutcomeDistribution original) {
     this.nPlayers = original.getNumPlayers();
     this.nActions = original.getNumActions().clone();
-    this.probs = new GenericTensor<Double>(this.nActions);
-
-    OutcomeIterator itr = original.iterator();
-    while (itr.hasNext()) {
-      int[] outcome = itr.next();
-      probs.setValue(original.getProb(outcome), outcome);
+    if (original.isProduct()) {
+      this.factors = new double[nPlayers][];
+      for (int pl = 0; pl < nPlayers; pl++) {
+        this.factors[pl] = original.factors[pl].clone();
+      }
+      return;
     }
+    this.probs = new DoubleTensor(original.probs);
   }
 
   /**
@@ -38,7 +49,7 @@ public final class OutcomeDistribution {
   public OutcomeDistribution(int[] nActions) {
     this.nPlayers = nActions.length;
     this.nActions = nActions.clone();
-    this.probs = new GenericTensor<Double>(this.nActions);
+    this.probs = new DoubleTensor(this.nActions);
     setCentroid();
   }
 
@@ -51,12 +62,13 @@ public final class OutcomeDistribution {
   public OutcomeDistribution(int[] nActions, double initialValue) {
     this.nPlayers = nActions.length;
     this.nActions = nActions.clone();
-    this.probs = new GenericTensor<Double>(this.nActions);
+    this.probs = new DoubleTensor(this.nActions);
     setAll(initialValue);
   }
 
   /**
-   * Create a new distribution object based on the joint mixed strategies given
+   * Create a new distribution object based on the joint mixed strategies given.
+   * The distribution is kept in product form, the joint tensor is not created.
    * @param strategies a list of mixed strategies
    */
   public OutcomeDistribution(List<MixedStrategy> strategies) {
@@ -72,7 +84,6 @@ public final class OutcomeDistribution {
     for (int pl = 0; pl < nPlayers; pl++) {
       nActions[pl] = strategies.get(pl).getNumActions();
     }
-    this.probs = new GenericTensor<Double>(this.nActions);
 
     setMixedStrategies(strategies);
   }
@@ -85,10 +96,87 @@ public final class OutcomeDistribution {
   public OutcomeDistribution(int[] nActions, Collection<int[]> outcomes) {
     this.nPlayers = nActions.length;
     this.nActions = nActions.clone();
-    this.probs = new GenericTensor<Double>(this.nActions);
+    this.probs = new DoubleTensor(this.nActions);
     setOutcomeSet(outcomes);
   }
 
+  /**
+   * Product form distribution over the given per player probabilities (index 0 unused)
+   * @param factors the probabilities of each player's actions, used without copying
+   */
+  private OutcomeDistribution(double[][] factors) {
+    this.nPlayers = factors.length;
+    this.nActions = new int[nPlayers];
+    for (int pl = 0; pl < nPlayers; pl++) {
+      nActions[pl] = factors[pl].length - 1;
+    }
+    this.factors = factors;
+  }
+
+  /**
+   * Whether the distribution is stored in product form (built from independent mixed strategies)
+   * @return true when every outcome probability is the product of per player probabilities
+   */
+  public boolean isProduct() {
+    return factors != null;
+  }
+
+  /**
+   * The probabilities of one player's actions of a product form distribution.
+   * The array is indexed like MixedStrategy (actions start at 1) and must be treated as read only.
+   * @param player the player
+   * @return the player's probabilities, null if the distribution is not in product form
+   */
+  public double[] getFactor(int player) {
+    return factors == null ? null : factors[player];
+  }
+
+  /**
+   * The probabilities of every outcome indexed by flat outcome index (see OutcomeIterator.getIndex).
+   * The array must be treated as read only.
+   * @return the probabilities, null if the distribution is in product form
+   */
+  public double[] getProbData() {
+    return factors == null ? probs.getData() : null;
+  }
+
+  /**
+   * Create the joint tensor from the product form, needed before changing single outcomes
+   */
+  private void materialize() {
+    if (factors == null) return;
+    DoubleTensor joint = new DoubleTensor(nActions);
+    IndexCursor cursor = joint.cursor();
+    while (cursor.hasNext()) {
+      joint.setValue(getProb(cursor.next()), cursor.getIndex());
+    }
+    probs = joint;
+    factors = null;
+  }
+
+  /**
+   * Allocate an empty joint tensor, dropping the product form, when every value is about to be set
+   */
+  private void clearProduct() {
+    if (factors == null) return;
+    probs = new DoubleTensor(nActions);
+    factors = null;
+  }
+
+  /**
+   * Sum of one player's probabilities in product form
+   * @param player the player
+   * @return the sum
+   */
+  private double factorSum(int player) {
+    double sum = 0d;
+    double[] f = factors[player];
+    for (int a = 1; a < f.length; a++) {
+      sum += f[a];
+    }
+    return sum;
+  }
+
   /**
    * gets an iterator for this distribution
    * @return the outcome iterater
@@ -119,14 +207,30 @@ public final class OutcomeDistribution {
       }
     }
 
+    if (factors != null) {
+      // the remaining players stay independent, the restricted players only scale the total
+      double scale = 1d;
+      for (int pl = 0; pl < nPlayers; pl++) {
+        if (restrictedPlayers.contains(pl)) scale *= factorSum(pl);
+      }
+      double[][] remaining = new double[nRemainingPlayers][];
+      for (int pl = 0; pl < nRemainingPlayers; pl++) {
+        remaining[pl] = factors[playerMapping[pl]].clone();
+      }
+      for (int a = 1; a < remaining[0].length; a++) {
+        remaining[0][a] *= scale;
+      }
+      return new OutcomeDistribution(remaining);
+    }
+
     // create a new distribution to represent the marginal (initialized to zero)
     OutcomeDistribution conditional = new OutcomeDistribution(remainingActions, 0d);
 
     // loop over the unrestricted outcomes, summing the probabilities for each restricted outcome
-    OutcomeIterator itr = iterator();
+    IndexCursor cursor = probs.cursor();
     int[] restrictedOutcome = new int[nRemainingPlayers];
-    while (itr.hasNext()) {
-      int[] outcome = itr.next();
+    while (cursor.hasNext()) {
+      int[] outcome = cursor.next();
 
       // map the outcome into the restricted player set
       for (int pl = 0; pl < nRemainingPlayers; pl++) {
@@ -134,8 +238,7 @@ public final class OutcomeDistribution {
       }
 
       // sum the probabilities that map into the same restricted outcome
-      double oldProb = conditional.getProb(restrictedOutcome);
-      conditional.setProb(restrictedOutcome, oldProb + probs.getValue(outcome));
+      conditional.probs.add(conditional.probs.getIndex(restrictedOutcome), probs.getValue(cursor.getIndex()));
     }
     return conditional;
   }
@@ -163,11 +266,21 @@ public final class OutcomeDistribution {
    */
   public double[] getMarginalDistribution(int player) {
     double[] marginal = new double[nActions[player] + 1];
+    if (factors != null) {
+      double scale = 1d;
+      for (int pl = 0; pl < nPlayers; pl++) {
+        if (pl != player) scale *= factorSum(pl);
+      }
+      for (int a = 1; a <= nActions[player]; a++) {
+        marginal[a] = factors[player][a] * scale;
+      }
+      return marginal;
+    }
 
-    OutcomeIterator itr = iterator();
-    while (itr.hasNext()) {
-      int[] outcome = itr.next();
-      marginal[outcome[player]] += probs.getValue(outcome);
+    IndexCursor cursor = probs.cursor();
+    while (cursor.hasNext()) {
+      int[] outcome = cursor.next();
+      marginal[outcome[player]] += probs.getValue(cursor.getIndex());
     }
     return marginal;
   }
@@ -176,6 +289,7 @@ public final class OutcomeDistribution {
    * Sets this distribution to represent the centroid
    */
   public void setCentroid() {
+    clearProduct();
     double tmpProb = 1d / probs.size();
     setAll(tmpProb);
   }
@@ -184,7 +298,16 @@ public final class OutcomeDistribution {
    * set a single profile chosen at uniform random as the predictions
    */
   public void setRandomPureProfile() {
-    int r = EGAUtils.rand.nextInt(probs.size());
+    setRandomPureProfile(EGAUtils.random());
+  }
+
+  /**
+   * set a single profile chosen at uniform random as the predictions
+   * @param rng source of the random numbers
+   */
+  public void setRandomPureProfile(Random rng) {
+    materialize();
+    int r = rng.nextInt(probs.size());
     probs.setValue(1d, r);
   }
 
@@ -195,14 +318,12 @@ public final class OutcomeDistribution {
    * @param value value to set each probability to
    */
   public void setAll(double value) {
-    int nProfiles = probs.size();
-    for (int i = 0; i < nProfiles; i++) {
-      probs.setValue(value, i);
-    }
+    clearProduct();
+    probs.fill(value);
   }
 
   /**
-   * Sets the distribution based on the given mixed strategies
+   * Sets the distribution based on the given mixed strategies (the distribution is put in product form)
    * @param strategies the list of mixed strategies
    */
   public void setMixedStrategies(List<MixedStrategy> strategies) {
@@ -211,15 +332,16 @@ public final class OutcomeDistribution {
       return;
     }
 
-    OutcomeIterator itr = iterator();
-    while (itr.hasNext()) {
-      int[] outcome = itr.next();
-      double prob = 1d;
-      for (int pl = 0; pl < nPlayers; pl++) {
-        prob *= strategies.get(pl).getProb(outcome[pl]);
+    double[][] f = new double[nPlayers][];
+    for (int pl = 0; pl < nPlayers; pl++) {
+      MixedStrategy ms = strategies.get(pl);
+      f[pl] = new double[nActions[pl] + 1];
+      for (int a = 1; a <= nActions[pl]; a++) {
+        f[pl][a] = ms.getProb(a);
       }
-      probs.setValue(prob, outcome);
     }
+    factors = f;
+    probs = null;
   }
 
   /**
@@ -252,10 +374,17 @@ public final class OutcomeDistribution {
       setCentroid();
       return;
     }
+    if (factors != null) {
+      // scaling one player's probabilities scales every outcome
+      for (int a = 1; a < factors[0].length; a++) {
+        factors[0][a] /= sum;
+      }
+      return;
+    }
 
-    int nProfiles = probs.size();
-    for (int i = 0; i < nProfiles; i++) {
-      probs.setValue(probs.getValue(i) / sum, i);
+    double[] values = probs.getData();
+    for (int i = 0; i < values.length; i++) {
+      values[i] /= sum;
     }
   }
   
@@ -265,6 +394,7 @@ public final class OutcomeDistribution {
    * @param value to be set
    */
   public void setProb(int[] outcome, double value) {
+    materialize();
     probs.setValue(value, outcome);
   }
   
@@ -274,6 +404,13 @@ public final class OutcomeDistribution {
    * @return the probability
    */
   public double getProb(int[] outcome) {
+    if (factors != null) {
+      double prob = 1d;
+      for (int pl = 0; pl < nPlayers; pl++) {
+        prob *= factors[pl][outcome[pl]];
+      }
+      return prob;
+    }
     return probs.getValue(outcome);
   }
 
@@ -292,12 +429,14 @@ public final class OutcomeDistribution {
    * @return the sum
    */
   private double computeSum() {
-    int nProfiles = probs.size();
-    double sum = 0d;
-    for (int i = 0; i < nProfiles; i++) {
-      sum += probs.getValue(i);
+    if (factors != null) {
+      double sum = 1d;
+      for (int pl = 0; pl < nPlayers; pl++) {
+        sum *= factorSum(pl);
+      }
+      return sum;
     }
-    return sum;
+    return probs.sum();
   }
 
   /**
@@ -305,9 +444,27 @@ public final class OutcomeDistribution {
    * @return entropy
    */
   public double computeEntropy() {
-    int nProfiles = probs.size();
     double entropy = 0d;
     double log2 = Math.log(2);
+    if (factors != null) {
+      // sum p log p over outcomes splits into one term per player weighted by the other players' mass
+      for (int pl = 0; pl < nPlayers; pl++) {
+        double scale = 1d;
+        for (int other = 0; other < nPlayers; other++) {
+          if (other != pl) scale *= factorSum(other);
+        }
+        double term = 0d;
+        for (int a = 1; a <= nActions[pl]; a++) {
+          double prob = factors[pl][a];
+          if (prob > 0) {
+            term += prob * (Math.log(prob) / log2);
+          }
+        }
+        entropy += term * scale;
+      }
+      return entropy != 0 ? -entropy : entropy;
+    }
+    int nProfiles = probs.size();
     for (int i = 0; i < nProfiles; i++) {
       double prob = probs.getValue(i);
       if (prob > 0) {
@@ -327,36 +484,51 @@ public final class OutcomeDistribution {
    * @param delta see above description
    */
   public void mixWithUniform(double delta) {
-    int nProfiles = probs.size();
-    double uniformProb = delta / nProfiles;
-    for (int i = 0; i < nProfiles; i++) {
-      double prob = probs.getValue(i);
+    materialize();
+    double[] values = probs.getData();
+    double uniformProb = delta / values.length;
+    for (int i = 0; i < values.length; i++) {
+      double prob = values[i];
       prob *= (1 - delta);
       prob += uniformProb;
-      probs.setValue(prob, i);
+      values[i] = prob;
     }
   }
 
+  /**
+   * Sampler drawing outcomes from this distribution in constant time per player (product form)
+   * or per draw (joint form). Build it once and keep it, it does not follow later changes.
+   * @return the sampler
+   */
+  public ProfileSampler sampler() {
+    if (factors != null) {
+      return new ProfileSampler(factors);
+    }
+    return new ProfileSampler(nActions, probs.getData());
+  }
+
   /**
    * select a random profile according to this outcome distribution
+   * (builds a sampler each call, use sampler() for many draws)
    * @return random profile
    */
   public int[] sampleDistribution() {
-    for (int i = 0; i < 5; i++) {
-      OutcomeIterator itr = iterator();
-      double r = EGAUtils.rand.nextDouble();
-      while (itr.hasNext()) {
-        int[] outcome = itr.next();
-        r -= probs.getValue(outcome);
-        if (r <= 0) return outcome;
-      }
-      System.out.println("Error Sampling outcome distribution: " + r + " " + i);
-    }
+    return sampleDistribution(EGAUtils.random());
+  }
 
-    System.out.println("SERIOUS error sampling outcome distribution! (more than 5 iterations failed).");
-    int[] tmp = new int[nPlayers];
-    Arrays.fill(tmp, 1);
-    return tmp;
+  /**
+   * select a random profile according to this outcome distribution
+   * @param rng source of the random numbers
+   * @return random profile
+   */
+  public int[] sampleDistribution(Random rng) {
+    if (!(computeSum() > 0)) {
+      System.out.println("SERIOUS error sampling outcome distribution! (no positive probability).");
+      int[] tmp = new int[nPlayers];
+      Arrays.fill(tmp, 1);
+      return tmp;
+    }
+    return sampler().sample(rng);
   }
 
   /**
@@ -371,7 +543,7 @@ public final class OutcomeDistribution {
     while (itr.hasNext()) {
       int[] outcome = itr.next();
       sb.append(Arrays.toString(outcome)).append(": ");
-      sb.append(probs.getValue(outcome)).append("\n");
+      sb.append(getProb(outcome)).append("\n");
     }
     sb.append("\n");
     String tmp = sb.toString();
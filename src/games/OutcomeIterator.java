@@ -1,39 +1,50 @@
 package games;
 
 import java.util.*;
+import util.IndexCursor;
 
 /**
- * An Iterator for looping through the outcomes in the game
+ * An Iterator for looping through the outcomes in the game.
+ * Alongside the actions it keeps the flat index of the outcome (the layout used by MatrixGame
+ * and the tensors, first player most significant) so callers do not translate the actions again.
+ * The returned array is reused, iterating does not allocate.
  */
 
 public final class OutcomeIterator implements Iterator<int[]> {
   private final int[] nActions;
   private final int nPlayers;
 
+  private final int[] strides;
+
   private int[] actions;
+  private int index;
   private boolean firstOutcome;
 
   public OutcomeIterator(Game g) {
     this.nPlayers = g.getNumPlayers();
     this.nActions = g.getNumActions();
+    this.strides = IndexCursor.computeStrides(nActions);
     init();
   }
 
   public OutcomeIterator(int numPlayers, int[] numActions) {
     this.nPlayers = numPlayers;
     this.nActions = numActions.clone();
+    this.strides = IndexCursor.computeStrides(nActions);
     init();
   }
 
   public OutcomeIterator(GameObserver go) {
     this.nPlayers = go.getNumPlayers();
     this.nActions = go.getNumActions();
+    this.strides = IndexCursor.computeStrides(nActions);
     init();
   }
 
   private void init() {
     actions = new int[nPlayers];
     Arrays.fill(actions, 1);
+    index = 0;
     firstOutcome = true;
   }
 
@@ -44,12 +55,21 @@ public final class OutcomeIterator implements Iterator<int[]> {
   public void reset() {
     firstOutcome = true;
     Arrays.fill(actions, 1);
+    index = 0;
   }
 
   public int[] getOutcome() {
     return actions;
   }
 
+  /**
+   * The flat index of the current outcome, same as MatrixGame.getOutcomeIndex(getOutcome())
+   * @return the index
+   */
+  public int getIndex() {
+    return index;
+  }
+
   public boolean hasNext() {
     if (firstOutcome) return true;
     for (int i = 0; i < nPlayers; i++) {
@@ -80,8 +100,10 @@ public final class OutcomeIterator implements Iterator<int[]> {
     for (int i = 0; i < nPlayers; i++) {
       if (actions[i] < nActions[i]) {
         actions[i]++;
+        index += strides[i];
         break;
       } else {
+        index -= (actions[i] - 1) * strides[i];
         actions[i] = 1;
       }
     }
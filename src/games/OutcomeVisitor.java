@@ -0,0 +1,15 @@
+package games;
+
+/**
+ * Callback for visiting every outcome of a game, see Game.forEachOutcome
+ */
+
+public interface OutcomeVisitor {
+
+  /**
+   * Called once per outcome
+   * @param outcome the actions of each player (starting at 1), reused between calls
+   * @param index the flat index of the outcome (see MatrixGame.getOutcomeIndex)
+   */
+  void visit(int[] outcome, int index);
+}
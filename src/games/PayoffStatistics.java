@@ -0,0 +1,185 @@
+package games;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of the payoffs of a matrix game, computed in a single pass over the payoffs.
+ * For every player it holds the minimum, maximum and mean payoff and, in two player games, the
+ * extrema of each row and column of that player's payoff matrix. Instances are immutable;
+ * MatrixGame keeps one until a payoff changes (see MatrixGame.getStatistics).
+ * <p>
+ * A row is an action of the row player (player 0) and a column an action of the column player
+ * (player 1), for both players' matrices. The indexed getters take actions from 1; the arrays
+ * are copies indexed by action - 1, so an agent changing one does not change the statistics
+ * shared by every view of the game.
+ * </p>
+ */
+
+public final class PayoffStatistics {
+
+  private final double[] min;
+  private final double[] max;
+  private final double[] mean;
+  private final double[][] rowMin;
+  private final double[][] rowMax;
+  private final double[][] colMin;
+  private final double[][] colMax;
+
+  /**
+   * Compute the statistics of a game
+   * @param mg the game
+   */
+  PayoffStatistics(MatrixGame mg) {
+    int nPlayers = mg.getNumPlayers();
+    int nProfiles = mg.getNumProfiles();
+    double[] data = mg.getSharedPayoffData();
+    min = new double[nPlayers];
+    max = new double[nPlayers];
+    mean = new double[nPlayers];
+    boolean matrix = nPlayers == 2;
+    int rows = mg.getNumActions(0);
+    int cols = matrix ? mg.getNumActions(1) : 0;
+    rowMin = matrix ? new double[nPlayers][rows] : null;
+    rowMax = matrix ? new double[nPlayers][rows] : null;
+    colMin = matrix ? new double[nPlayers][cols] : null;
+    colMax = matrix ? new double[nPlayers][cols] : null;
+    for (int pl = 0; pl < nPlayers; pl++) {
+      int off = pl * nProfiles;
+      double lo = Double.POSITIVE_INFINITY;
+      double hi = Double.NEGATIVE_INFINITY;
+      double sum = 0d;
+      if (matrix) {
+        double[] rMin = rowMin[pl];
+        double[] rMax = rowMax[pl];
+        double[] cMin = colMin[pl];
+        double[] cMax = colMax[pl];
+        Arrays.fill(rMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(rMax, Double.NEGATIVE_INFINITY);
+        Arrays.fill(cMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(cMax, Double.NEGATIVE_INFINITY);
+        for (int r = 0; r < rows; r++) {
+          int base = off + r * cols;
+          for (int c = 0; c < cols; c++) {
+            double v = data[base + c];
+            if (v < rMin[r]) rMin[r] = v;
+            if (v > rMax[r]) rMax[r] = v;
+            if (v < cMin[c]) cMin[c] = v;
+            if (v > cMax[c]) cMax[c] = v;
+          }
+        }
+      }
+      for (int i = off; i < off + nProfiles; i++) {
+        double v = data[i];
+        lo = Math.min(lo, v);
+        hi = Math.max(hi, v);
+        sum += v;
+      }
+      min[pl] = lo;
+      max[pl] = hi;
+      mean[pl] = sum / nProfiles;
+    }
+  }
+
+  /**
+   * Lowest payoff of a player
+   * @param player the player
+   * @return the minimum
+   */
+  public double getMin(int player) {
+    return min[player];
+  }
+
+  /**
+   * Highest payoff of a player
+   * @param player the player
+   * @return the maximum
+   */
+  public double getMax(int player) {
+    return max[player];
+  }
+
+  /**
+   * Average payoff of a player over all outcomes
+   * @param player the player
+   * @return the mean
+   */
+  public double getMean(int player) {
+    return mean[player];
+  }
+
+  /**
+   * Lowest payoff of a player in a row (two player games only)
+   * @param player whose payoffs
+   * @param row the row player's action (starts at 1)
+   * @return the row minimum
+   */
+  public double getRowMin(int player, int row) {
+    return rowMin[player][row - 1];
+  }
+
+  /**
+   * Highest payoff of a player in a row (two player games only)
+   * @param player whose payoffs
+   * @param row the row player's action (starts at 1)
+   * @return the row maximum
+   */
+  public double getRowMax(int player, int row) {
+    return rowMax[player][row - 1];
+  }
+
+  /**
+   * Lowest payoff of a player in a column (two player games only)
+   * @param player whose payoffs
+   * @param col the column player's action (starts at 1)
+   * @return the column minimum
+   */
+  public double getColumnMin(int player, int col) {
+    return colMin[player][col - 1];
+  }
+
+  /**
+   * Highest payoff of a player in a column (two player games only)
+   * @param player whose payoffs
+   * @param col the column player's action (starts at 1)
+   * @return the column maximum
+   */
+  public double getColumnMax(int player, int col) {
+    return colMax[player][col - 1];
+  }
+
+  /**
+   * Lowest payoff of a player in each row (two player games only)
+   * @param player whose payoffs
+   * @return a copy of the row minima
+   */
+  public double[] getRowMinima(int player) {
+    return rowMin[player].clone();
+  }
+
+  /**
+   * Highest payoff of a player in each row (two player games only)
+   * @param player whose payoffs
+   * @return a copy of the row maxima
+   */
+  public double[] getRowMaxima(int player) {
+    return rowMax[player].clone();
+  }
+
+  /**
+   * Lowest payoff of a player in each column (two player games only)
+   * @param player whose payoffs
+   * @return a copy of the column minima
+   */
+  public double[] getColumnMinima(int player) {
+    return colMin[player].clone();
+  }
+
+  /**
+   * Highest payoff of a player in each column (two player games only)
+   * @param player whose payoffs
+   * @return a copy of the column maxima
+   */
+  public double[] getColumnMaxima(int player) {
+    return colMax[player].clone();
+  }
+}
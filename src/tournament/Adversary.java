@@ -49,4 +49,12 @@ public class Adversary extends Player{
 		return SolverUtils.computeAdversaryResponse(mg,playerNumber,lambda);
     }
 
+	/**
+	 * The key carries lambda, which changes the strategies
+	 */
+	@Override
+	public String getCacheKey(){
+		return newName+":"+lambda;
+	}
+
 }
@@ -0,0 +1,193 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs PlayerDrivers on a reusable pool of threads and enforces the per call time limit with
+ * Future.get(timeout). Keeps a record of the calls, time outs and exceptions of every agent.
+ */
+public class AgentExecutor {
+
+	/**
+	 * Kind of threads used to run the agents
+	 */
+	public enum ThreadMode {
+		/**a cached pool of daemon platform threads*/
+		PLATFORM,
+		/**one virtual thread per call (Java 21+), falls back to PLATFORM when not available*/
+		VIRTUAL
+	}
+
+	private final ExecutorService service;
+	private final Map<Player, Record> records = new ConcurrentHashMap<Player, Record>();
+
+	/**
+	 * Executor backed by platform threads
+	 */
+	public AgentExecutor(){
+		this(ThreadMode.PLATFORM);
+	}
+
+	/**
+	 * Executor backed by the requested kind of threads
+	 * @param mode platform or virtual threads
+	 */
+	public AgentExecutor(ThreadMode mode){
+		ExecutorService es = null;
+		if(mode == ThreadMode.VIRTUAL){
+			try{
+				es = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}catch(Exception e){
+				System.out.println("Virtual threads not available, using platform threads");
+			}
+		}
+		if(es == null){
+			es = Executors.newCachedThreadPool(new ThreadFactory(){
+				private final AtomicInteger count = new AtomicInteger();
+				public Thread newThread(Runnable r){
+					Thread t = new Thread(r, "agent-" + count.incrementAndGet());
+					t.setDaemon(true);//a stuck agent should not keep the tournament alive
+					return t;
+				}
+			});
+		}
+		service = es;
+	}
+
+	/**
+	 * Submit a driver without waiting for it
+	 * @param pDriver the driver to run
+	 * @return the future of the call
+	 */
+	public Future<?> submit(PlayerDriver pDriver){
+		return service.submit(pDriver);
+	}
+
+	/**
+	 * Run a driver and wait for it to finish or for the time limit to pass.
+	 * ManualOverride agents are waited on without a limit.
+	 * @param pDriver the driver to run
+	 * @param timeLimit time limit in milliseconds
+	 * @return true when the call finished without a time out or exception
+	 */
+	public boolean run(PlayerDriver pDriver, long timeLimit){
+		return run(pDriver, pDriver.getPlayer(), timeLimit);
+	}
+
+	/**
+	 * Run a driver for a copy of an agent, recording the call on the original agent
+	 * @param pDriver the driver to run
+	 * @param owner the agent the calls are recorded for
+	 * @param timeLimit time limit in milliseconds
+	 * @return true when the call finished without a time out or exception
+	 */
+	public boolean run(PlayerDriver pDriver, Player owner, long timeLimit){
+		Record record = record(owner);
+		record.calls.incrementAndGet();
+		Future<?> future = service.submit(pDriver);
+		try{
+			if(pDriver.isOverride())
+				future.get();
+			else
+				future.get(timeLimit, TimeUnit.MILLISECONDS);
+		}catch(TimeoutException e){
+			future.cancel(true);
+			record.timeouts.incrementAndGet();
+			return false;
+		}catch(ExecutionException e){
+			e.getCause().printStackTrace();
+			record.exceptions.incrementAndGet();
+			return false;
+		}catch(InterruptedException e){
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		if(pDriver.getError() != null){
+			record.exceptions.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Number of calls made to an agent
+	 * @param p the agent
+	 * @return the number of calls
+	 */
+	public int getCalls(Player p){
+		return record(p).calls.get();
+	}
+
+	/**
+	 * Number of calls of an agent that ran out of time
+	 * @param p the agent
+	 * @return the number of time outs
+	 */
+	public int getTimeouts(Player p){
+		return record(p).timeouts.get();
+	}
+
+	/**
+	 * Number of calls of an agent that threw an exception
+	 * @param p the agent
+	 * @return the number of exceptions
+	 */
+	public int getExceptions(Player p){
+		return record(p).exceptions.get();
+	}
+
+	/**
+	 * Print the time outs and exceptions of every agent that had any
+	 * @param players the agents
+	 */
+	public void printProblems(ArrayList<Player> players){
+		for(int i = 0; i < players.size(); i++){
+			Player p = players.get(i);
+			if(getTimeouts(p) > 0 || getExceptions(p) > 0)
+				System.out.println(p.getName()+"\ttimeouts "+getTimeouts(p)+"\texceptions "+getExceptions(p)+"\tcalls "+getCalls(p));
+		}
+	}
+
+	/**
+	 * Clear all records
+	 */
+	public void resetRecords(){
+		records.clear();
+	}
+
+	/**
+	 * Stop the pool, running agents are interrupted
+	 */
+	public void shutdown(){
+		service.shutdownNow();
+	}
+
+	private Record record(Player p){
+		Record r = records.get(p);
+		if(r == null){
+			records.putIfAbsent(p, new Record());
+			r = records.get(p);
+		}
+		return r;
+	}
+
+	/**
+	 * Counters for a single agent
+	 */
+	private static class Record {
+		final AtomicInteger calls = new AtomicInteger();
+		final AtomicInteger timeouts = new AtomicInteger();
+		final AtomicInteger exceptions = new AtomicInteger();
+	}
+}
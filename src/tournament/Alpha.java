@@ -49,4 +49,12 @@ public class Alpha extends Player{
 		return SolverUtils.interpolate(rob, brn, alpha);
     }
 
+	/**
+	 * The key carries lambda and alpha, which change the strategies
+	 */
+	@Override
+	public String getCacheKey(){
+		return newName+":"+lambda+":"+alpha;
+	}
+
 }
@@ -334,4 +334,12 @@ public class CognitiveHierarchy extends Player{
 		return super.toString() + "_L" + level;
 	}
 
+	/**
+	 * The key carries the level, tau, lambda and the quantal flag, which change the strategies
+	 */
+	@Override
+	public String getCacheKey(){
+		return newName+":"+level+":"+tau+":"+lambda+":"+quantal;
+	}
+
 }
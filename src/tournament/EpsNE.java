@@ -216,4 +216,10 @@ public class EpsNE extends Player{
 			b[i] = a[i];
 		return b;
 	}
+
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
 }
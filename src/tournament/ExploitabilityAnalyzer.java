@@ -0,0 +1,355 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import games.*;
+import util.*;
+
+/**
+ * Computes the post tournament exploitability analysis for every agent in bulk: the payoff against
+ * its nemesis (the opponent's best response), the payoff against two reference agents and the
+ * curve of payoffs against an interpolation between the second reference agent and the nemesis.
+ * <p>
+ * For every game, agent and seat the nemesis action values and the reference payoffs are
+ * accumulated in one pass over the payoff matrix, and the whole interpolation curve in a second
+ * pass once the nemesis is known. The games are split across a ForkJoinPool and the per game
+ * results are folded together in game order. Each accumulator adds its terms in the same order as
+ * SolverUtils.computeNemesis, expectedPayoffs and interpolate, so the results are bit-identical
+ * to evaluating every pair on its own.
+ * </p>
+ */
+public class ExploitabilityAnalyzer {
+
+	/**Games evaluated by a task before it stops splitting*/
+	private static final int THRESHOLD = 4;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Create an analyzer with the given number of worker threads
+	 * @param parallelism number of threads, 1 runs on the calling thread
+	 */
+	public ExploitabilityAnalyzer(int parallelism){
+		this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+	}
+
+	/**
+	 * Analyze the stored strategies of every agent on every game
+	 * @param players the agents, strategies must already be computed
+	 * @param games the games the strategies were computed for
+	 * @param uniform index of the first reference agent (the uniform random agent)
+	 * @param equilibrium index of the second reference agent, also the start of the interpolation curve
+	 * @param rates weights of the nemesis along the interpolation curve, null to skip the curve
+	 * @return the results averaged over both seats of every game
+	 */
+	public Result analyze(ArrayList<Player> players, ArrayList<MatrixGame> games, int uniform, int equilibrium, double[] rates){
+		int numPlayers = players.size();
+		int numGames = games.size();
+		int numRates = rates == null ? 0 : rates.length;
+		//per (game, player, seat): nemesis, uniform, equilibrium then the curve
+		int stride = 3 + numRates;
+		double[] results = new double[numGames * numPlayers * 2 * stride];
+		GameTask task = new GameTask(players, games, uniform, equilibrium, rates, results, 0, numGames);
+		if(pool == null)
+			task.compute();
+		else
+			pool.invoke(task);
+		return new Result(numPlayers, numGames, numRates, results);
+	}
+
+	/**
+	 * Averaged results of an analysis
+	 */
+	public static class Result {
+		private final double[] nemesis;
+		private final double[] nemesisMin;
+		private final double[] nemesisMax;
+		private final double[] uniform;
+		private final double[] equilibrium;
+		private final double[][] mixed;
+
+		/**
+		 * Fold the per game results in game order
+		 */
+		private Result(int numPlayers, int numGames, int numRates, double[] results){
+			nemesis = new double[numPlayers];
+			nemesisMin = new double[numPlayers];
+			nemesisMax = new double[numPlayers];
+			uniform = new double[numPlayers];
+			equilibrium = new double[numPlayers];
+			mixed = new double[numPlayers][numRates];
+			Arrays.fill(nemesisMin, Double.POSITIVE_INFINITY);
+			Arrays.fill(nemesisMax, Double.NEGATIVE_INFINITY);
+			int stride = 3 + numRates;
+			for(int g = 0; g < numGames; g++){
+				for(int p = 0; p < numPlayers; p++){
+					for(int seat = 0; seat < 2; seat++){
+						int r = ((g * numPlayers + p) * 2 + seat) * stride;
+						double temp = results[r];
+						nemesis[p] += temp;
+						nemesisMin[p] = Math.min(nemesisMin[p], temp);
+						nemesisMax[p] = Math.max(nemesisMax[p], temp);
+						uniform[p] += results[r + 1];
+						equilibrium[p] += results[r + 2];
+					}
+				}
+			}
+			//the curve is summed rate by rate, game by game, row seat before column seat
+			for(int k = 0; k < numRates; k++)
+				for(int g = 0; g < numGames; g++)
+					for(int p = 0; p < numPlayers; p++){
+						int r = (g * numPlayers + p) * 2 * stride + 3 + k;
+						mixed[p][k] += results[r];
+						mixed[p][k] += results[r + stride];
+					}
+			double twogames = 2*numGames;
+			for(int p = 0; p < numPlayers; p++){
+				nemesis[p] = nemesis[p] / twogames;
+				uniform[p] = uniform[p] / twogames;
+				equilibrium[p] = equilibrium[p] / twogames;
+				for(int k = 0; k < numRates; k++)
+					mixed[p][k] = mixed[p][k]/numGames/2.0;
+			}
+		}
+
+		/**
+		 * Average payoff of every agent against its nemesis
+		 * @return the nemesis payoffs
+		 */
+		public double[] getNemesis(){
+			return nemesis.clone();
+		}
+
+		/**
+		 * Lowest payoff of every agent against its nemesis on any game and seat
+		 * @return the minimums
+		 */
+		public double[] getNemesisMinimums(){
+			return nemesisMin.clone();
+		}
+
+		/**
+		 * Highest payoff of every agent against its nemesis on any game and seat
+		 * @return the maximums
+		 */
+		public double[] getNemesisMaximums(){
+			return nemesisMax.clone();
+		}
+
+		/**
+		 * Average payoff of every agent against the first reference agent
+		 * @return the payoffs
+		 */
+		public double[] getUniform(){
+			return uniform.clone();
+		}
+
+		/**
+		 * Average payoff of every agent against the second reference agent
+		 * @return the payoffs
+		 */
+		public double[] getEquilibrium(){
+			return equilibrium.clone();
+		}
+
+		/**
+		 * Average payoff of every agent at every point of the interpolation curve
+		 * @return [agent][rate] payoffs, empty rows when the curve was skipped
+		 */
+		public double[][] getMixed(){
+			double[][] copy = new double[mixed.length][];
+			for(int p = 0; p < mixed.length; p++)
+				copy[p] = mixed[p].clone();
+			return copy;
+		}
+	}
+
+	/**
+	 * Analyzes the games in [start, end)
+	 */
+	private static class GameTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final ArrayList<Player> players;
+		private final ArrayList<MatrixGame> games;
+		private final int uniform;
+		private final int equilibrium;
+		private final double[] rates;
+		private final double[] results;
+		private final int start;
+		private final int end;
+
+		GameTask(ArrayList<Player> players, ArrayList<MatrixGame> games, int uniform, int equilibrium, double[] rates, double[] results, int start, int end){
+			this.players = players;
+			this.games = games;
+			this.uniform = uniform;
+			this.equilibrium = equilibrium;
+			this.rates = rates;
+			this.results = results;
+			this.start = start;
+			this.end = end;
+		}
+
+		protected void compute(){
+			if(end - start > THRESHOLD){
+				int mid = (start + end) >>> 1;
+				invokeAll(new GameTask(players, games, uniform, equilibrium, rates, results, start, mid),
+						new GameTask(players, games, uniform, equilibrium, rates, results, mid, end));
+				return;
+			}
+			int numPlayers = players.size();
+			int numRates = rates == null ? 0 : rates.length;
+			int stride = 3 + numRates;
+			Workspace work = null;
+			for(int g = start; g < end; g++){
+				MatrixGame mg = games.get(g);
+				if(work == null || work.rows != mg.getNumActions(0) || work.cols != mg.getNumActions(1))
+					work = new Workspace(mg.getNumActions(0), mg.getNumActions(1), numRates);
+				for(int p = 0; p < numPlayers; p++){
+					for(int seat = 0; seat < 2; seat++){
+						int r = ((g * numPlayers + p) * 2 + seat) * stride;
+						Player player = players.get(p);
+						//the agent plays seat, the opponents take the other seat
+						MixedStrategy ms = player.getStrategyView(g, seat + 1);
+						MixedStrategy uni = players.get(uniform).getStrategyView(g, 2 - seat);
+						MixedStrategy ene = players.get(equilibrium).getStrategyView(g, 2 - seat);
+						work.analyze(mg, seat, ms, uni, ene, rates, results, r);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scratch arrays of a task, reused for every game of the same size
+	 */
+	private static class Workspace {
+		private final int rows;
+		private final int cols;
+		private final double[] values;
+		private final double[][] mixes;
+		private final double[] curve;
+		private final MixedStrategy mix;
+		private final MixedStrategy nemesis;
+
+		Workspace(int rows, int cols, int numRates){
+			this.rows = rows;
+			this.cols = cols;
+			values = new double[Math.max(rows, cols) + 1];
+			mixes = new double[numRates][];
+			curve = new double[numRates];
+			mix = new MixedStrategy(Math.max(rows, cols));
+			nemesis = new MixedStrategy(Math.max(rows, cols));
+		}
+
+		/**
+		 * Results of one agent in one seat: nemesis, uniform and equilibrium payoffs then the curve
+		 */
+		void analyze(MatrixGame mg, int seat, MixedStrategy ms, MixedStrategy uni, MixedStrategy ene, double[] rates, double[] out, int offset){
+			int numRates = rates == null ? 0 : rates.length;
+			int opponentActions = seat == 0 ? cols : rows;
+			MixedStrategy nem = opponentActions == nemesis.getNumActions() ? nemesis : new MixedStrategy(opponentActions);
+			MixedStrategy curveMix = opponentActions == mix.getNumActions() ? mix : new MixedStrategy(opponentActions);
+			if(!(ms.isValid() && uni.isValid() && ene.isValid())){
+				separately(mg, seat, ms, uni, ene, rates, out, offset);
+				return;
+			}
+			double[] data = mg.getSharedPayoffData();
+			int off = mg.getOffset(seat);
+			//read the stored strategies in place
+			double[] own = ms.getData();
+			int o = ms.getOffset();
+			double[] pu = uni.getData();
+			int u = uni.getOffset();
+			double[] pe = ene.getData();
+			int e = ene.getOffset();
+			//pass 1: nemesis action values (computeActionValues) and the reference payoffs (bilinearPayoffs)
+			Arrays.fill(values, 0.0);
+			double sumU = 0.0;
+			double sumE = 0.0;
+			for(int col = 1; col <= cols; col++){
+				int index = off + col - 1;
+				for(int row = 1; row <= rows; row++, index += cols){
+					double v = data[index];
+					double x = seat == 0 ? own[o + row] : pu[u + row];
+					double y = seat == 0 ? pu[u + col] : own[o + col];
+					double prob = x * y;
+					if(prob > 0)
+						sumU += prob * v;
+					x = seat == 0 ? own[o + row] : pe[e + row];
+					y = seat == 0 ? pe[e + col] : own[o + col];
+					prob = x * y;
+					if(prob > 0)
+						sumE += prob * v;
+					if(seat == 0){
+						if(own[o + row] > 0)
+							values[col] += own[o + row] * v;
+					}
+					else if(own[o + col] > 0)
+						values[row] += own[o + col] * v;
+				}
+			}
+			double worstPay = Double.MAX_VALUE;
+			int worstAction = 1;
+			for(int i = 1; i <= opponentActions; i++){
+				if(values[i] < worstPay){
+					worstPay = values[i];
+					worstAction = i;
+				}
+			}
+			out[offset] = values[worstAction];
+			out[offset + 1] = sumU;
+			out[offset + 2] = sumE;
+			if(numRates == 0)
+				return;
+			//the curve mixes as in SolverUtils.interpolate
+			nem.setZeros();
+			nem.setProb(worstAction, 1.0);
+			for(int k = 0; k < numRates; k++){
+				curveMix.setProbs(ene);
+				for(int i = 0; i <= opponentActions; i++)
+					curveMix.setProb(i, ene.getProb(i)*(1-rates[k]) + nem.getProb(i)*rates[k]);
+				curveMix.normalize();
+				if(!curveMix.isValid()){
+					separately(mg, seat, ms, uni, ene, rates, out, offset);
+					return;
+				}
+				if(mixes[k] == null || mixes[k].length != opponentActions + 1)
+					mixes[k] = new double[opponentActions + 1];
+				System.arraycopy(curveMix.getProbs(), 0, mixes[k], 0, opponentActions + 1);
+			}
+			//pass 2: the whole curve (bilinearPayoffs for every rate)
+			Arrays.fill(curve, 0.0);
+			for(int col = 1; col <= cols; col++){
+				int index = off + col - 1;
+				for(int row = 1; row <= rows; row++, index += cols){
+					double v = data[index];
+					for(int k = 0; k < numRates; k++){
+						double prob = seat == 0 ? own[o + row] * mixes[k][col] : mixes[k][row] * own[o + col];
+						if(prob > 0)
+							curve[k] += prob * v;
+					}
+				}
+			}
+			System.arraycopy(curve, 0, out, offset + 3, numRates);
+		}
+
+		/**
+		 * Evaluate every pair on its own, used when a strategy is invalid so the usual
+		 * invalid strategy handling of expectedPayoffs applies
+		 */
+		private void separately(MatrixGame mg, int seat, MixedStrategy ms, MixedStrategy uni, MixedStrategy ene, double[] rates, double[] out, int offset){
+			int numRates = rates == null ? 0 : rates.length;
+			MixedStrategy nemesis = SolverUtils.computeNemesis(mg, seat, ms);
+			out[offset] = seat == 0 ? SolverUtils.expectedPayoffs(ms, nemesis, mg)[0] : SolverUtils.expectedPayoffs(nemesis, ms, mg)[1];
+			out[offset + 1] = seat == 0 ? SolverUtils.expectedPayoffs(ms, uni, mg)[0] : SolverUtils.expectedPayoffs(uni, ms, mg)[1];
+			out[offset + 2] = seat == 0 ? SolverUtils.expectedPayoffs(ms, ene, mg)[0] : SolverUtils.expectedPayoffs(ene, ms, mg)[1];
+			for(int k = 0; k < numRates; k++){
+				MixedStrategy mix = SolverUtils.interpolate(ene, nemesis, rates[k]);
+				out[offset + 3 + k] = seat == 0 ? SolverUtils.expectedPayoffs(ms, mix, mg)[0] : SolverUtils.expectedPayoffs(mix, ms, mg)[1];
+			}
+		}
+	}
+}
@@ -30,6 +30,18 @@ public class GameMaster {
 	private static Parameters param = new Parameters();
 	private static final int timeLimit = 10000; //1000 milliseconds
 	private static boolean asym = true;
+	private static int parallelism = Runtime.getRuntime().availableProcessors(); //threads used to solve the games and play the round-robin, 1 for sequential
+	private static RoundRobin roundRobin = new RoundRobin(parallelism, verbose);
+	private static ExploitabilityAnalyzer analyzer = new ExploitabilityAnalyzer(parallelism);
+	private static StrategyCache strategyCache = new StrategyCache(1000000); //reuses strategies of deterministic agents
+	private static long progressInterval = 0; //print the standings every this many matches, 0 for none
+	private static int sampledDraws = 0; //outcomes drawn per one shot match to estimate its payoffs, 0 for the exact expected payoffs
+	private static PayoffSampler.Estimator sampledEstimator = PayoffSampler.Estimator.CONTROL_VARIATE; //PLAIN, ANTITHETIC or CONTROL_VARIATE
+	private static long sampleSeed = 0; //seed of the sampled play, matches draw from streams derived from it
+	private static long randomSeed = -1; //master seed of the agents' random streams (see Player.getRandom), -1 for a different seed every run
+	private static AgentExecutor agents = new AgentExecutor(AgentExecutor.ThreadMode.PLATFORM); //PLATFORM or VIRTUAL threads for the agents
+	private static SolvePool solvePool = new SolvePool(parallelism, agents, strategyCache, timeLimit); //solves the games of copyable agents in parallel
+	private static RepeatedGameEngine repeatedGames = new RepeatedGameEngine(parallelism, agents, timeLimit, verbose); //plays the repeated game matches of copyable agents in parallel
 	
 	/**
 	 * Runs the tournament. Add your agent(s) to the list.
@@ -157,6 +169,9 @@ public class GameMaster {
 		//players.add(new UniformRandom());
 		//players.add(new UniformRandom());
 		players.add(new MaxMin());
+		//players.add(new Minimax());
+		//players.add(new Nash());
+		//players.add(new Iterative());
 		players.add(new Punish());
 		//players.add(new Robust(0));
 		players.add(new Robust(0.1));
@@ -230,114 +245,21 @@ public class GameMaster {
 		double[][] nem_mins = new double[settings.size()][];
 		double[][] nem_maxs = new double[settings.size()][];
 
+		roundRobin.setSampling(sampledDraws, sampledEstimator, sampleSeed);
+		if(randomSeed != -1)
+			RandomStreams.setSeed(randomSeed);
 		for(int setting = 0; setting < settings.size(); setting++){
 			param = settings.get(setting);
 			System.out.println(param.getDescription());
-			games = GameGenerator.generate(numGames,param);
-			if(games.isEmpty()){//safety net
-				System.out.println("Could Not Create Games");
-				System.exit(0);
-			}			
-			//update agents with parameters
-			for(int c = 0; c < players.size(); c++){
-				players.get(c).setParameters(param.copy());
-				tryPlayer(new PlayerDriver(players.get(c)));//run init
-			}
-						
-			ArrayList<MatrixGame> gamesCopy = new ArrayList<MatrixGame>();
-			Iterator<MatrixGame> itr = games.iterator();
-			MatrixGame tempGame;
-			while(itr.hasNext()){
-				tempGame = itr.next();
-				gamesCopy.add(new MatrixGame(tempGame));
-				games2.add(new MatrixGame(tempGame));
-			}
-			itr = games2.iterator();
-			while(itr.hasNext()){
-				tempGame = itr.next();
-				tempGame.setDescription(tempGame.getDescription()+"2");
-			}
-			//obfuscate (will not change if outcome uncertainty is zero)
-			GameGenerator.obfuscate(games,param);
-			GameGenerator.obfuscate(games2,param);
-
-			if(settings.get(setting).getNumRepeat() == 0)
-				computeStrategies(players);
-
-				//compute expected payoffs
-			double[][] payoffMatrix = new double[players.size()][players.size()];
-			double[] wins = new double[players.size()];
+			//nemesis, UR and ENE payoffs of every agent, plus the mixing curve on no uncertainty
+			double[] rates = {0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+			SettingResult result = playSetting(players, param, setting == 0 ? rates : null);
+			TournamentStatistics stats = result.getStatistics();
+			ExploitabilityAnalyzer.Result analysis = result.getAnalysis();
 			int numPlayers = players.size();
-			double[] payoffs = new double[2];
-			MixedStrategy strats[] = new MixedStrategy[2];
-			for(int p1 = 0; p1 < numPlayers; p1++) {
-				for(int p2 = p1; p2 < numPlayers; p2++) {
-					for (int game = 0; game < numGames; game++) {
-						if(param.getNumRepeat() < 1){
-							Player player1 = players.get(p1);
-							Player player2 = players.get(p2);
-							if(verbose)	System.out.println("Game number" + game);
-							if(verbose) System.out.println(player1.getName()+" vs "+player2.getName());
-							payoffs = match(player1,player2,game,gamesCopy.get(game));
-							updateResults(payoffMatrix,payoffs,p1,p2,wins);
-							if(verbose) System.out.println(payoffs[0]);
-							if(verbose) System.out.println(payoffs[1]);
-							if(verbose) System.out.println(player2.getName()+" vs "+player1.getName());
-							payoffs = match(player2,player1,game,gamesCopy.get(game));
-							updateResults(payoffMatrix,payoffs,p2,p1,wins);
-							if(verbose) System.out.println(payoffs[0]);
-							if(verbose) System.out.println(payoffs[1]);
-							if(verbose) System.out.println();
-						}
-						else if(p1 != p2){
-							MatrixGame mg = new MatrixGame(gamesCopy.get(game));//gives the agent a copy of the game
-							Player player1 = players.get(p1);
-							Player player2 = players.get(p2);
-							player1.resetHistory();
-							player2.resetHistory();
-							player1.setGame(game);//legacy
-							player2.setGame(game);//legacy
-							player1.setGame(new MatrixGame(mg));
-							player2.setGame(new MatrixGame(mg));
-							player1.setPlayerNumber(1);
-							player2.setPlayerNumber(2);
-							if(verbose)	System.out.println("Game number" + game);
-							if(verbose) System.out.println(player1.getName()+" vs "+player2.getName());
-							for(int repeat = 0; repeat < param.getNumRepeat(); repeat++){
-								if(verbose)System.out.println("repeat "+repeat);
-								payoffs = repeater(player1,player2,games.get(game));
-								updateResults(payoffMatrix,payoffs,p1,p2,wins);
-								if(verbose) System.out.println(payoffs[0]);
-								if(verbose) System.out.println(payoffs[1]);
-								if(verbose) System.out.println(player2.getName()+" vs "+player1.getName());
-							}
-							player1.resetHistory();
-							player2.resetHistory();
-							player1.setGame(new MatrixGame(mg));
-							player2.setGame(new MatrixGame(mg));
-							player1.setPlayerNumber(2);
-							player2.setPlayerNumber(1);
-							for(int repeat = 0; repeat < param.getNumRepeat(); repeat++){
-								if(verbose)System.out.println("repeat "+repeat);
-								payoffs = repeater(player2,player1,games.get(game));
-								updateResults(payoffMatrix,payoffs,p2,p1,wins);
-								if(verbose) System.out.println(payoffs[0]);
-								if(verbose) System.out.println(payoffs[1]);
-								if(verbose) System.out.println(player2.getName()+" vs "+player1.getName());
-							}
-						}
-					}
-				}
-			}
 			//average the payoff matrix
-			for(int i = 0; i < payoffMatrix.length; i++)
-				for(int j= 0; j < payoffMatrix[i].length; j++){
-					//payoffMatrix[i][j] = payoffMatrix[i][j]/(2*numGames*payoffMatrix.length*(param.getNumRepeat()+1));
-					payoffMatrix[i][j] = payoffMatrix[i][j]/(2*numGames);
-					if(i == j){
-						payoffMatrix[i][j] = payoffMatrix[i][j]/2.0;
-					}
-				}
+			double[][] payoffMatrix = stats.getPayoffMatrix();
+			double[] wins = stats.getWins();
 			
 			//what agents earned against uniform random
 			/*double[] t = new double[payoffMatrix.length];
@@ -353,11 +275,11 @@ public class GameMaster {
 			if(verbose) printMatrix(payoffMatrix,players);
 			
 			//compute results
-			double[] expPayoff = calculateAverageExpectedPayoffs(payoffMatrix);
-			//double[] regrets = calculateRegrets(payoffMatrix);
-			double[] stabilities = calculateStabilities(payoffMatrix);
-			double[] minimums = findMinimums(payoffMatrix);
-			//double[] reverse = calculateReversePayoffs(payoffMatrix);
+			double[] expPayoff = stats.getAverageExpectedPayoffs();
+			//double[] regrets = stats.getRegrets();
+			double[] stabilities = stats.getStabilities();
+			double[] minimums = stats.getMinimums();
+			//double[] reverse = stats.getReversePayoffs();
 			//print summary regardless of verbose
 			playerArrayPrinter("Total Wins",players, wins);
 			playerArrayPrinter("Overall Average Expected Utility", players, expPayoff);
@@ -365,78 +287,15 @@ public class GameMaster {
 			playerArrayPrinter("Tournament Stabilities",players,stabilities);
 			//playerArrayPrinter("Expected Reverse Utility",players,reverse);
 			playerArrayPrinter("Minimum Per Player",players,minimums);
+			agents.printProblems(players);
 			
 			System.out.println();
 
-			double[] nem = new double[numPlayers];
-			double[] nem_min = new double[numPlayers];
-			for(int i = 0; i<nem_min.length; i++){
-				nem_min[i] = Double.MAX_VALUE;
-			}
-			double[] nem_max = new double[numPlayers];
-			for(int i = 0; i<nem_max.length; i++){
-				nem_min[i] = Double.MIN_VALUE;
-			}
-			MixedStrategy nemesis = new MixedStrategy(numActions);
-			MixedStrategy ms = new MixedStrategy(numActions);
-			MixedStrategy uni = new MixedStrategy(numActions);
-			double[] pu = new double[numPlayers];
-			MixedStrategy ene = new MixedStrategy(numActions);
-			double[] pene = new double[numPlayers];
-			double temp = 0.0;
-			MixedStrategy[][][] saveNem = new MixedStrategy[numGames][numPlayers][2];
-			//if(setting == 0)//only on no uncertainty for now
-			for(int g = 0; g < numGames; g++){
-				MatrixGame mg = gamesCopy.get(g);
-				for(int p = 0; p < players.size(); p++){
-					ms = players.get(p).getStrategy(g,1);
-					nemesis = SolverUtils.computeNemesis(mg, 0, ms);
-					saveNem[g][p][0] = new MixedStrategy(nemesis.getProbs());
-					//nemesis = new MixedStrategy(numActions);
-					temp = SolverUtils.expectedPayoffs(ms, nemesis, mg)[0];
-					nem[p] += temp;
-					if(nem_min[p] > temp)
-						nem_min[p] = temp;
-					if(nem_max[p] < temp)
-						nem_max[p] = temp;
-
-					uni = players.get(0).getStrategy(g,2);
-					temp = SolverUtils.expectedPayoffs(ms, uni, mg)[0];
-					pu[p] += temp;
-
-					ene = players.get(1).getStrategy(g,2);
-					temp = SolverUtils.expectedPayoffs(ms, ene, mg)[0];
-					pene[p] += temp;
-
-					
-					ms = players.get(p).getStrategy(g,2);
-					nemesis = SolverUtils.computeNemesis(mg, 1, ms);
-					saveNem[g][p][1] = new MixedStrategy(nemesis.getProbs());
-					//nemesis = new MixedStrategy(numActions);
-					//nem[p] += SolverUtils.expectedPayoffs(ms, nemesis, mg)[1];
-					temp = SolverUtils.expectedPayoffs(nemesis, ms, mg)[1];
-					nem[p] += temp;
-					if(nem_min[p] > temp)
-						nem_min[p] = temp;
-					if(nem_max[p] < temp)
-						nem_max[p] = temp;
-					
-					uni = players.get(0).getStrategy(g,1);
-					temp = SolverUtils.expectedPayoffs(uni, ms, mg)[1];
-					pu[p] += temp;
-
-					ene = players.get(1).getStrategy(g,1);
-					temp = SolverUtils.expectedPayoffs(ene, ms, mg)[1];
-					pene[p] += temp;
-				}
-			}
-			double twogames = 2*numGames;
-			for(int p = 0; p < players.size();p++){
-				nem[p] = nem[p] / twogames;
-				pu[p] = pu[p] / twogames;
-				pene[p] = pene[p] / twogames;
-
-			}
+			double[] nem = analysis.getNemesis();
+			double[] nem_min = analysis.getNemesisMinimums();
+			double[] nem_max = analysis.getNemesisMaximums();
+			double[] pu = analysis.getUniform();
+			double[] pene = analysis.getEquilibrium();
 			records[setting] = Arrays.copyOf(nem, nem.length);
 			nem_mins[setting] = Arrays.copyOf(nem_min, nem_min.length);
 			nem_maxs[setting] = Arrays.copyOf(nem_max, nem_max.length);
@@ -464,35 +323,7 @@ public class GameMaster {
 
 			//figure out how to mix here
 			if(setting == 0){//only on no uncertainty for now 
-				double[] mixer = new double[10];
-				MixedStrategy strat;
-				MixedStrategy mix;
-				
-				double[] rates = {0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
-				double[][] mixedResults = new double[numPlayers][rates.length];
-			   
-				for(int r = 0; r < rates.length; r++){
-					for(int g = 0; g < numGames; g++){
-						MatrixGame mg = gamesCopy.get(g);
-						for(int p = 0; p < numPlayers; p++){
-							//do row player
-							strat = players.get(p).getStrategy(g, 1);
-							ms = players.get(1).getStrategy(g, 2);//ene
-							nemesis = saveNem[g][p][0];
-							mix = SolverUtils.interpolate(ms, nemesis, rates[r]);
-							temp = SolverUtils.expectedPayoffs(strat, mix, mg)[0];
-							mixedResults[p][r] += temp;
-
-							//do column player
-							strat = players.get(p).getStrategy(g, 2);
-							ms = players.get(1).getStrategy(g, 1);//ene
-							nemesis = saveNem[g][p][1];
-							mix = SolverUtils.interpolate(ms, nemesis, rates[r]);
-							temp = SolverUtils.expectedPayoffs(mix, strat, mg)[1];
-							mixedResults[p][r] += temp;
-						}
-					}
-				}
+				double[][] mixedResults = analysis.getMixed();
 
 				try{
 					FileWriter write = new FileWriter("mixed.dat");
@@ -505,7 +336,7 @@ public class GameMaster {
 						//line = rates[r]+"-"+(1-rates[r]);
 						line = (r+1) + "";
 						for(int p = 0; p <numPlayers; p++){
-							line = line + "\t"+(mixedResults[p][r]/numGames/2.0);
+							line = line + "\t"+mixedResults[p][r];
 						}
 						write.write(line+"\n");
 					}
@@ -567,51 +398,109 @@ public class GameMaster {
 		System.exit(0);//just to make sure it exits
 	}
 	/**
-	 * Execute two agents, add to their history, return the payoffs
-	 * @param p1 player 1
-	 * @param p2 player 2
-	 * @param game the game they're playing (don't need to copy)
-	 * @return the expected payoffs
+	 * Plays one setting of the tournament: generates and obfuscates the games, initializes the
+	 * agents, computes their strategies, plays the round-robin (or the repeated games) and
+	 * analyses how exploitable the agents are. The games are kept for the helpers below.
+	 * @param players the agents
+	 * @param param the setting
+	 * @param rates mixing rates of the analysis, null for none
+	 * @return the statistics and the analysis of the setting
+	 */
+	public static SettingResult playSetting(ArrayList<Player> players, Parameters param, double[] rates){
+		agents.resetRecords();//the time outs and exceptions printed are those of this setting
+		games = GameGenerator.generate(numGames,param);
+		if(games.isEmpty()){//safety net
+			System.out.println("Could Not Create Games");
+			System.exit(0);
+		}			
+		//update agents with parameters
+		for(int c = 0; c < players.size(); c++){
+			players.get(c).setParameters(param.copy());
+			tryPlayer(new PlayerDriver(players.get(c)));//run init
+		}
+					
+		ArrayList<MatrixGame> gamesCopy = new ArrayList<MatrixGame>();
+		Iterator<MatrixGame> itr = games.iterator();
+		MatrixGame tempGame;
+		while(itr.hasNext()){
+			tempGame = itr.next();
+			gamesCopy.add(tempGame.view());
+			games2.add(tempGame.view());
+		}
+		itr = games2.iterator();
+		while(itr.hasNext()){
+			tempGame = itr.next();
+			tempGame.setDescription(tempGame.getDescription()+"2");
+		}
+		//obfuscate (will not change if outcome uncertainty is zero)
+		GameGenerator.obfuscate(games,param);
+		GameGenerator.obfuscate(games2,param);
+
+		if(param.getNumRepeat() == 0)
+			computeStrategies(players);
+
+		//compute expected payoffs
+		TournamentStatistics stats = new TournamentStatistics(players, numGames);
+		int numPlayers = players.size();
+		if(param.getNumRepeat() < 1){
+			stats.setProgress(progressInterval, (long)numPlayers * (numPlayers + 1) * numGames);
+			roundRobin.play(players,gamesCopy,stats);
+			if(sampledDraws > 0)
+				System.out.println("Sampled play: "+sampledDraws+" draws per match, 95% interval half width mean "+roundRobin.getMeanConfidenceInterval()+" max "+roundRobin.getMaxConfidenceInterval());
+		}
+		else{
+			stats.setProgress(progressInterval, (long)numPlayers * (numPlayers - 1) * numGames * param.getNumRepeat());
+			repeatedGames.play(players, gamesCopy, games, numGames, param.getNumRepeat(), stats);
+		}
+		ExploitabilityAnalyzer.Result analysis = analyzer.analyze(players, gamesCopy, 0, 1, rates);
+		return new SettingResult(stats, analysis);
+	}
+
+	/**
+	 * Results of one setting
+	 */
+	public static class SettingResult {
+		private final TournamentStatistics statistics;
+		private final ExploitabilityAnalyzer.Result analysis;
+
+		private SettingResult(TournamentStatistics statistics, ExploitabilityAnalyzer.Result analysis){
+			this.statistics = statistics;
+			this.analysis = analysis;
+		}
+
+		/**
+		 * Standard accessor
+		 * @return the payoffs, wins and standings of the matches
+		 */
+		public TournamentStatistics getStatistics(){
+			return statistics;
+		}
+
+		/**
+		 * Standard accessor
+		 * @return the nemesis, uniform and equilibrium payoffs of the agents
+		 */
+		public ExploitabilityAnalyzer.Result getAnalysis(){
+			return analysis;
+		}
+	}
+
+	/**
+	 * Forget the strategies cached by earlier settings, e.g. to time a setting from scratch
 	 */
-	private static double[] repeater(Player p1, Player p2, MatrixGame game){
-		double payoffs[] = new double[2];
-		MixedStrategy strats[] = new MixedStrategy[2];
-		PlayerDriver pd1 = new PlayerDriver(PlayerState.SOLVE,p1);
-		tryPlayer(pd1);
-		strats[0] = pd1.getSolution();
-		PlayerDriver pd2 = new PlayerDriver(PlayerState.SOLVE,p2);
-		tryPlayer(pd2);
-		strats[1] = pd2.getSolution();
-		p1.addHistory(strats);
-		p2.addHistory(strats);
-		payoffs = match(strats[0],strats[1],game);		
-		p1.saveLastPayoffs(payoffs);
-		p2.saveLastPayoffs(payoffs);
-		return payoffs;
+	public static void clearStrategyCache(){
+		strategyCache.clear();
 	}
 
 	/**
-	 * Tries to execute a Player class' method by using threads for protection in case
+	 * Tries to execute a Player class' method on the agent pool for protection in case
 	 * the Player subclasses crash or time out.
 	 * 
-	 * @param pDriver The thread that will execute the player
+	 * @param pDriver The driver that will execute the player
+	 * @return true when the player finished in time without an exception
 	 */
-	private static void tryPlayer(PlayerDriver pDriver){
-		//int timeLimit = 2000;//2s or 2000ms
-		Thread playerThread = new Thread(pDriver);
-		playerThread.start();
-		if(!pDriver.isOverride()){
-			for(int sleep = 0; sleep < timeLimit; sleep+=10){
-				if(playerThread.isAlive())
-					try {Thread.sleep(10);} catch (Exception e) {e.printStackTrace();}
-				else
-					return;
-			}
-		}
-		else{
-			while(playerThread.isAlive())
-				try {Thread.sleep(1000);} catch (Exception e) {e.printStackTrace();}
-		}
+	private static boolean tryPlayer(PlayerDriver pDriver){
+		return agents.run(pDriver, timeLimit);
 	}
 
 	/**
@@ -619,36 +508,19 @@ public class GameMaster {
 	 * @param p The agents being run in the tournament
 	 */
 	private static void computeStrategies(ArrayList<Player> p){
-		ArrayList<PlayerDriver> drivers = new ArrayList<PlayerDriver>();
-		for(int pd = 0; pd < p.size(); pd++)
-			drivers.add(new PlayerDriver(PlayerState.SOLVE,p.get(pd)));
-		for(int gameNumber = 0; gameNumber < numGames; gameNumber++){
-			MatrixGame mg = new MatrixGame(games.get(gameNumber));//gives the agent a copy of the game
-			MatrixGame gm = new MatrixGame(games2.get(gameNumber));//for asym
-			for(int playerIndex = 0; playerIndex < p.size(); playerIndex++){
-				Player player = p.get(playerIndex);
-				if(asym){
-					player.setGame(gameNumber);//legacy
-					player.setGame(new MatrixGame(mg));
-					player.setPlayerNumber(1);
-					tryPlayer(new PlayerDriver(PlayerState.SOLVE,player));
-					player.setGame(new MatrixGame(gm));
-					player.setPlayerNumber(2);
-					tryPlayer(new PlayerDriver(PlayerState.SOLVE,player));
-				}
-				else{
-					for(int playerNumber = 1; playerNumber <= 2; playerNumber++){
-						player.setGame(gameNumber);//legacy
-						player.setGame(new MatrixGame(mg));
-						player.setPlayerNumber(playerNumber);
-						tryPlayer(new PlayerDriver(PlayerState.SOLVE,player));
-					}
-
-				}
-			}				
-		}
+		strategyCache.resetStats();
+		solvePool.solve(p, games, asym ? games2 : games, numGames);
+		System.out.println(strategyCache);
 	}
 	
+	/**
+	 * Time an agent is given to finish an action before it is stopped
+	 * @return the time limit in milliseconds
+	 */
+	public static int getTimeLimit(){
+		return timeLimit;
+	}
+
 	/**
 	 * Reads all the games used in the tournament
 	 * ***DEPRICATED***
@@ -702,7 +574,7 @@ public class GameMaster {
 			double[] payoffs = {0,-1337};
 			return payoffs;
 		}*/
-		return SolverUtils.expectedPayoffs(p1.getStrategy(gameNumber,1),p2.getStrategy(gameNumber,2),games.get(gameNumber));
+		return SolverUtils.expectedPayoffs(p1.getStrategyView(gameNumber,1),p2.getStrategyView(gameNumber,2),games.get(gameNumber));
 	}
 	
 	/**
@@ -716,7 +588,7 @@ public class GameMaster {
 	 * @return the payoffs of the match
 	 */
 	public static double[] match(Player p1, Player p2, int gameNumber, MatrixGame game){
-		return SolverUtils.expectedPayoffs(p1.getStrategy(gameNumber,1),p2.getStrategy(gameNumber,2),game);
+		return SolverUtils.expectedPayoffs(p1.getStrategyView(gameNumber,1),p2.getStrategyView(gameNumber,2),game);
 	}
 	
 	/**
@@ -865,10 +737,10 @@ public class GameMaster {
 		int matching = 0;
 		double d;
 		for(int gameNumber = 0; gameNumber < numGames; gameNumber++){
-			d = distance(p1.getStrategy(gameNumber,1),p2.getStrategy(gameNumber,1));
+			d = distance(p1.getStrategyView(gameNumber,1),p2.getStrategyView(gameNumber,1));
 			if(Math.abs(d) < 0.000001)
 				matching++;
-			d = distance(p1.getStrategy(gameNumber,2),p2.getStrategy(gameNumber,2));
+			d = distance(p1.getStrategyView(gameNumber,2),p2.getStrategyView(gameNumber,2));
 			if(Math.abs(d) < 0.000001)
 				matching++;
 		}
@@ -0,0 +1,334 @@
+package tournament;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import games.MixedStrategy;
+
+/**
+ * The strategies played in each round of a repeated game, oldest first.
+ * Rounds are kept as rows of one primitive array, the row player's probabilities followed by the
+ * column player's in the MixedStrategy layout (slot 0 unused), so adding a round copies the
+ * probabilities without creating any objects. get returns read only views of a row.
+ * <p>
+ * How much is kept depends on the mode:
+ * FULL keeps every round, WINDOW keeps the last window rounds in a ring buffer (older rounds are
+ * dropped and their rows reused, so views of a dropped round show a later round) and SUMMARY keeps
+ * no rounds at all. In every mode size() is the number of rounds kept, getRounds() counts every round
+ * added, and the empirical frequencies and cumulative payoffs cover every round.
+ * </p>
+ * Rounds whose strategies do not have the action counts of the first round (e.g. the fallback of an
+ * agent that crashed) are kept aside as copies and left out of the frequencies.
+ */
+public class History extends AbstractList<MixedStrategy[]> implements RandomAccess {
+
+	/**
+	 * What a history keeps
+	 */
+	public enum Mode {
+		/**every round*/
+		FULL,
+		/**the last rounds*/
+		WINDOW,
+		/**only the frequencies and payoffs*/
+		SUMMARY
+	}
+
+	private static final int INITIAL_ROWS = 16;
+
+	private final Mode mode;
+	private final int window;
+	private double[] data = new double[0];
+	private int rowActions = -1;
+	private int columnActions = -1;
+	private int stride;
+	private int capacity;//rows allocated
+	private int first;//row of the oldest round kept
+	private int size;//rounds kept
+	private long rounds;//rounds added since the last clear
+	private Map<Long, MixedStrategy[]> odd;
+	private double[] rowSums = new double[0];
+	private double[] columnSums = new double[0];
+	private long rowCounted;
+	private long columnCounted;
+	private final double[] payoffSums = new double[2];
+
+	/**
+	 * Keep every round
+	 */
+	public History(){
+		this(0);
+	}
+
+	/**
+	 * Keep the last window rounds
+	 * @param window number of rounds kept, 0 keeps every round
+	 */
+	public History(int window){
+		if(window < 0)
+			throw new IllegalArgumentException("window must not be negative: " + window);
+		this.mode = window == 0 ? Mode.FULL : Mode.WINDOW;
+		this.window = window;
+	}
+
+	/**
+	 * Empty history with the same mode and window as another
+	 * @param like the history to take the mode from
+	 */
+	public History(History like){
+		this.mode = like.mode;
+		this.window = like.window;
+	}
+
+	private History(Mode mode){
+		this.mode = mode;
+		this.window = 0;
+	}
+
+	/**
+	 * History that only keeps the empirical frequencies and cumulative payoffs
+	 * @return the history
+	 */
+	public static History summary(){
+		return new History(Mode.SUMMARY);
+	}
+
+	/**
+	 * Copy of this history with every round, frequency and payoff, e.g. to carry a match over to a
+	 * new copy of an agent
+	 * @return the copy
+	 */
+	History copy(){
+		History h = new History(this);
+		h.data = data.clone();
+		h.rowActions = rowActions;
+		h.columnActions = columnActions;
+		h.stride = stride;
+		h.capacity = capacity;
+		h.first = first;
+		h.size = size;
+		h.rounds = rounds;
+		h.odd = odd == null ? null : new HashMap<Long, MixedStrategy[]>(odd);//the rounds in it are never changed
+		h.rowSums = rowSums.clone();
+		h.columnSums = columnSums.clone();
+		h.rowCounted = rowCounted;
+		h.columnCounted = columnCounted;
+		h.payoffSums[0] = payoffSums[0];
+		h.payoffSums[1] = payoffSums[1];
+		return h;
+	}
+
+	/**
+	 * Add a round
+	 * @param s1 strategy of the row player
+	 * @param s2 strategy of the column player
+	 */
+	public void add(MixedStrategy s1, MixedStrategy s2){
+		if(rowActions < 0){
+			rowActions = s1.getNumActions();
+			columnActions = s2.getNumActions();
+			stride = rowActions + columnActions + 2;
+			capacity = data.length / stride;//rows left by clear are reused
+			if(window > 0)
+				capacity = Math.min(capacity, window);
+			if(rowSums.length != rowActions + 1)
+				rowSums = new double[rowActions + 1];
+			if(columnSums.length != columnActions + 1)
+				columnSums = new double[columnActions + 1];
+		}
+		if(s1.getNumActions() == rowActions){
+			accumulate(rowSums, s1);
+			rowCounted++;
+		}
+		if(s2.getNumActions() == columnActions){
+			accumulate(columnSums, s2);
+			columnCounted++;
+		}
+		if(mode == Mode.SUMMARY){
+			rounds++;
+			modCount++;
+			return;
+		}
+		int row;
+		if(window > 0 && size == window){//full ring, drop the oldest round
+			row = first;
+			first = (first + 1) % capacity;
+			if(odd != null)
+				odd.remove(rounds - size);
+		}
+		else{
+			if(size == capacity)
+				grow();
+			row = (first + size) % capacity;
+			size++;
+		}
+		if(s1.getNumActions() == rowActions && s2.getNumActions() == columnActions){
+			int base = row * stride;
+			System.arraycopy(s1.getData(), s1.getOffset() + 1, data, base + 1, rowActions);
+			System.arraycopy(s2.getData(), s2.getOffset() + 1, data, base + rowActions + 2, columnActions);
+			if(odd != null)
+				odd.remove(rounds);
+		}
+		else{
+			if(odd == null)
+				odd = new HashMap<Long, MixedStrategy[]>();
+			odd.put(rounds, new MixedStrategy[]{new MixedStrategy(s1.getProbs()), new MixedStrategy(s2.getProbs())});
+		}
+		rounds++;
+		modCount++;
+	}
+
+	/**
+	 * Add a round, as add(round[0], round[1])
+	 * @param round strategies of the row and column player
+	 * @return true
+	 */
+	@Override
+	public boolean add(MixedStrategy[] round){
+		add(round[0], round[1]);
+		return true;
+	}
+
+	private static void accumulate(double[] sums, MixedStrategy ms){
+		double[] probs = ms.getData();
+		int off = ms.getOffset();
+		for(int a = 1; a < sums.length; a++)
+			sums[a] += probs[off + a];
+	}
+
+	/**
+	 * Add the payoffs of the last round to the cumulative payoffs
+	 * @param payoffs payoffs of the row and column player
+	 */
+	public void addPayoffs(double[] payoffs){
+		payoffSums[0] += payoffs[0];
+		payoffSums[1] += payoffs[1];
+	}
+
+	/**
+	 * Sum of the payoffs of every round
+	 * @param player Row Player = 0, Column Player = 1
+	 * @return the cumulative payoff
+	 */
+	public double getCumulativePayoff(int player){
+		return payoffSums[player];
+	}
+
+	/**
+	 * How often a player chose an action, the average of the strategies of every round
+	 * @param player Row Player = 0, Column Player = 1
+	 * @param action the action, starting at 1
+	 * @return the frequency, 0 before the first round
+	 */
+	public double getFrequency(int player, int action){
+		double[] sums = player == 0 ? rowSums : columnSums;
+		long counted = player == 0 ? rowCounted : columnCounted;
+		if(counted == 0 || action < 1 || action >= sums.length)
+			return 0;
+		return sums[action] / counted;
+	}
+
+	/**
+	 * Empirical mixed strategy of a player, the average of the strategies of every round
+	 * @param player Row Player = 0, Column Player = 1
+	 * @return the frequencies, null before the first round
+	 */
+	public MixedStrategy getFrequencies(int player){
+		double[] sums = player == 0 ? rowSums : columnSums;
+		long counted = player == 0 ? rowCounted : columnCounted;
+		if(counted == 0)
+			return null;
+		double[] probs = new double[sums.length];
+		for(int a = 1; a < sums.length; a++)
+			probs[a] = sums[a] / counted;
+		return new MixedStrategy(probs);
+	}
+
+	private void grow(){
+		int rows = capacity == 0 ? INITIAL_ROWS : 2 * capacity;
+		if(window > 0)
+			rows = Math.min(rows, window);
+		double[] grown = size == 0 && data.length >= rows * stride ? data : new double[rows * stride];
+		for(int i = 0; i < size; i++)//unwrap the ring
+			System.arraycopy(data, ((first + i) % capacity) * stride, grown, i * stride, stride);
+		data = grown;
+		capacity = rows;
+		first = 0;
+	}
+
+	/**
+	 * A kept round
+	 * @param index 0 for the oldest round kept
+	 * @return read only views of the row and column player's strategies (setProb and the other
+	 * mutators throw UnsupportedOperationException)
+	 */
+	@Override
+	public MixedStrategy[] get(int index){
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("round " + index + " of " + size);
+		if(odd != null){
+			MixedStrategy[] ms = odd.get(rounds - size + index);
+			if(ms != null)
+				return new MixedStrategy[]{ms[0], ms[1]};
+		}
+		int base = ((first + index) % capacity) * stride;
+		return new MixedStrategy[]{MixedStrategy.view(data, base, rowActions), MixedStrategy.view(data, base + rowActions + 1, columnActions)};
+	}
+
+	/**
+	 * Number of rounds kept
+	 * @return the rounds that can be read with get
+	 */
+	@Override
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Number of rounds added since the last clear, kept or not
+	 * @return the number of rounds
+	 */
+	public long getRounds(){
+		return rounds;
+	}
+
+	/**
+	 * Rounds kept in WINDOW mode
+	 * @return the window, 0 in the other modes
+	 */
+	public int getWindow(){
+		return window;
+	}
+
+	/**
+	 * What this history keeps
+	 * @return the mode
+	 */
+	public Mode getMode(){
+		return mode;
+	}
+
+	/**
+	 * Forget every round and reset the frequencies and payoffs, the rows are kept for reuse
+	 */
+	@Override
+	public void clear(){
+		first = 0;
+		size = 0;
+		rounds = 0;
+		odd = null;
+		Arrays.fill(rowSums, 0.0);
+		Arrays.fill(columnSums, 0.0);
+		rowCounted = 0;
+		columnCounted = 0;
+		payoffSums[0] = 0;
+		payoffSums[1] = 0;
+		rowActions = -1;
+		columnActions = -1;
+		capacity = 0;
+		modCount++;
+	}
+}
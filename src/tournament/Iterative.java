@@ -0,0 +1,87 @@
+package tournament;
+import util.*;
+import games.*;
+
+/**
+ * Approximates an equilibrium with an anytime iterative method (regret matching+ by default).
+ * The iteration stops at the epsilon target or after an iteration budget sized by the game.
+ * The averages of these dynamics need not approach a Nash equilibrium in general sum games, so
+ * when the target is not met the agent falls back to Lemke-Howson (with a pivot budget, see Nash)
+ * and plays whichever strategies are less exploitable. Both budgets are counted in steps, not
+ * time, so the strategy only depends on the game and seat.
+ * @version 2026.10.18
+ */
+public class Iterative extends Player{
+	protected final String newName = "Iterative"; //Overwrite this variable in your player subclass
+	protected IterativeSolver.Method method = IterativeSolver.Method.REGRET_MATCHING_PLUS;
+	protected double epsilon;
+	/**floating point operations allowed to the iterations of a solve*/
+	private static final long ITERATION_WORK = 50000000L;
+	/**floating point operations allowed to the pivots of the fallback*/
+	private static final long PIVOT_WORK = 2000000000L;
+	private IterativeSolver solver;
+	private NashSolver fallback;
+
+	/**Your constructor should look just like this*/
+	public Iterative() {
+		super();
+        playerName = newName;
+	}
+	/**
+	 * Initialize is called at beginning of tournament.
+	 * Use this time to decide on a strategy depending
+	 * on the parameters.
+	 */
+	public void initialize(){
+		epsilon = 0.01;
+		solver = new IterativeSolver(method);
+		solver.setTolerance(epsilon);
+		fallback = new NashSolver();
+	}
+
+	/**
+	 * Sets the iterative method, takes effect at the next initialize
+	 * @param method the dynamics to iterate
+	 */
+	public void setMethod(IterativeSolver.Method method){
+		this.method = method;
+	}
+	
+	/**
+     * GameMaster will call this to compute your strategy.
+     * @param mg The game your agent will be playing
+     * @param playerNumber Row Player = 0, Column Player = 1
+     */
+    protected MixedStrategy solveGame(MatrixGame mg, int playerNumber){
+		int m = mg.getNumActions(0);
+		int n = mg.getNumActions(1);
+		//an iteration costs about 2 m n, a pivot about (m + n) max(m, n)
+		solver.setMaxIterations((int)Math.max(1000, Math.min(Integer.MAX_VALUE, ITERATION_WORK / (2L * m * n))));
+		if(solver.solve(mg) == IterativeSolver.Status.CONVERGED)
+			return solver.getStrategy(playerNumber);
+		fallback.setPivotLimit(Math.max(1000, PIVOT_WORK / ((long)(m + n) * Math.max(m, n))));
+		fallback.solve(mg);
+		if(fallback.getStatus() != NashSolver.Status.FAILED && fallback.getRegret() <= solver.getExploitability())
+			return fallback.getStrategy(playerNumber);
+		return solver.getStrategy(playerNumber);
+    }
+
+	/**
+	 * The copy gets its own solvers
+	 * @return the copy
+	 */
+	public Player copyForWorker(){
+		Iterative copy = (Iterative)super.copyForWorker();
+		copy.initialize();
+		return copy;
+	}
+
+	/**
+	 * The key carries the method and epsilon, which change the strategies
+	 */
+	@Override
+	public String getCacheKey(){
+		return newName+":"+method+":"+epsilon;
+	}
+
+}
@@ -26,6 +26,14 @@ public class ManualOverride extends Player{
 		//System.out.println("Manual Override "+param.getDescription());
 	}
 	
+	/**
+	 * The user answers one game at a time, never copied for parallel solving
+	 * @return null
+	 */
+	public Player copyForWorker(){
+		return null;
+	}
+
 	/**
      * Asks the user for probabilities to enter via console
      * @param mg The game your agent will be playing
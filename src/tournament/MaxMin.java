@@ -35,4 +35,9 @@ public class MaxMin extends Player{
 		return SolverUtils.computeMaxMin(mg, playerNumber);
     }
 
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
 }
@@ -0,0 +1,54 @@
+package tournament;
+import util.*;
+import games.*;
+
+/**
+ * Mixed MaxMin strategy computed exactly with linear programming.
+ * In zero sum games this is a Nash equilibrium strategy.
+ * Every game is solved from scratch so the strategy only depends on the game and seat.
+ * @version 2026.10.18
+ */
+public class Minimax extends Player{
+	protected final String newName = "Minimax"; //Overwrite this variable in your player subclass
+	private ZeroSumSolver solver = new ZeroSumSolver();
+
+	/**Your constructor should look just like this*/
+	public Minimax() {
+		super();
+        playerName = newName;
+	}
+	/**
+	 * Initialize is called at beginning of tournament.
+	 * Use this time to decide on a strategy depending
+	 * on the parameters.
+	 */
+	public void initialize(){
+		solver.reset();
+	}
+	
+	/**
+     * GameMaster will call this to compute your strategy.
+     * @param mg The game your agent will be playing
+     * @param playerNumber Row Player = 0, Column Player = 1
+     */
+    protected MixedStrategy solveGame(MatrixGame mg, int playerNumber){
+		solver.solve(mg, playerNumber, playerNumber);
+		return solver.getMaximizerStrategy();
+    }
+
+	/**
+	 * The copy gets its own solver
+	 * @return the copy
+	 */
+	public Player copyForWorker(){
+		Minimax copy = (Minimax)super.copyForWorker();
+		copy.solver = new ZeroSumSolver();
+		return copy;
+	}
+
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
+}
@@ -0,0 +1,60 @@
+package tournament;
+import util.*;
+import games.*;
+
+/**
+ * Plays a mixed Nash equilibrium of the game, found by support enumeration in small games
+ * and Lemke-Howson otherwise. Lemke-Howson stops after a pivot budget sized by the game so it
+ * returns well within GameMaster's time limit, and then plays the best approximate equilibrium
+ * reached. The budget does not depend on the clock, so the strategy only depends on the game.
+ * @version 2026.10.18
+ */
+public class Nash extends Player{
+	protected final String newName = "Nash"; //Overwrite this variable in your player subclass
+	/**floating point operations allowed to the pivots of a solve, about a second*/
+	private static final long WORK_LIMIT = 2000000000L;
+	private NashSolver solver = new NashSolver();
+
+	/**Your constructor should look just like this*/
+	public Nash() {
+		super();
+        playerName = newName;
+	}
+	/**
+	 * Initialize is called at beginning of tournament.
+	 * Use this time to decide on a strategy depending
+	 * on the parameters.
+	 */
+	public void initialize(){
+	}
+	
+	/**
+     * GameMaster will call this to compute your strategy.
+     * @param mg The game your agent will be playing
+     * @param playerNumber Row Player = 0, Column Player = 1
+     */
+    protected MixedStrategy solveGame(MatrixGame mg, int playerNumber){
+		int m = mg.getNumActions(0);
+		int n = mg.getNumActions(1);
+		//a pivot updates about (m + n) * max(m, n) tableau entries
+		solver.setPivotLimit(Math.max(1000, WORK_LIMIT / ((long)(m + n) * Math.max(m, n))));
+		solver.solve(mg);
+		return solver.getStrategy(playerNumber);
+    }
+
+	/**
+	 * The copy gets its own solver
+	 * @return the copy
+	 */
+	public Player copyForWorker(){
+		Nash copy = (Nash)super.copyForWorker();
+		copy.solver = new NashSolver();
+		return copy;
+	}
+
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
+}
@@ -1,9 +1,11 @@
 package tournament;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import games.*;
 import util.Parameters;
+import util.RandomStreams;
 
 /**
  * Player agent.
@@ -14,21 +16,22 @@ import util.Parameters;
  * @author Marcus Gutierrez and Oscar Veliz
  * @version 04/15/2015
  */
-public abstract class Player{
+public abstract class Player implements Cloneable{
     protected String playerName = "defaultPlayer"; //Overwrite this variable in your player subclass
     protected MatrixGame game;
     private int gameNumber;
     protected int playerNumber;
-    private ArrayList<StrategyHolder> strategies;//interal saved for later use by GameMaster
-    protected ArrayList<MixedStrategy[]> history;
+    private StrategyStore strategies;//interal saved for later use by GameMaster
+    protected History history;
     protected double lastPayoffs[];
     protected Parameters param;
+    private Random random;//stream of the current task, set by GameMaster
     /**
      * Default Constructor
      */
     public Player(){
-        strategies = new ArrayList<StrategyHolder>();
-        history = new ArrayList<MixedStrategy[]>();
+        strategies = new StrategyStore();
+        history = new History();
         lastPayoffs = new double[2];
     }
     
@@ -85,6 +88,54 @@ public abstract class Player{
 			return 1;
     }
 
+    /**
+     * Key describing this agent's configuration, used by GameMaster to reuse strategies.
+     * Only override this when solveGame depends on nothing but the game, the seat and
+     * the values in the key (no randomness, history, parameters or time limits), otherwise leave it null.
+     * The strategy of such an agent can then be reused for every game with the same payoffs, solved on
+     * a copy on another thread (see copyForWorker) and asked only once per seat of a repeated match.
+     * The key must hold every setting that changes the strategies (e.g. lambda) so that two
+     * configurations of the same agent never share strategies.
+     * @return the key or null when strategies must not be reused
+     */
+    public String getCacheKey(){
+    	return null;
+    }
+
+    /**
+     * Copy of this agent used by GameMaster to solve games on another thread.
+     * The default is only made for cacheable agents (see getCacheKey), whose solveGame depends on
+     * nothing but the game and seat: a shallow copy that keeps the configuration but has its own
+     * game, seat, strategy and history. Agents that keep mutable helpers (a solver with work arrays)
+     * must override this and give the copy its own helpers.
+     * @return the copy, or null to have every game solved on this instance in order
+     */
+    public Player copyForWorker(){
+    	if(getCacheKey() == null)
+    		return null;
+    	try{
+    		Player copy = (Player)clone();
+    		copy.strategies = new StrategyStore();
+    		copy.history = new History(history);
+    		copy.lastPayoffs = new double[2];
+    		copy.random = null;
+    		return copy;
+    	}catch(CloneNotSupportedException e){
+    		return null;
+    	}
+    }
+
+    /**
+     * Copy of this agent used by GameMaster to play repeated game matches on another thread.
+     * The copy's history is reset before every match it plays. The default is copyForWorker, so only
+     * cacheable agents are copied. An agent that plays from its history but keeps nothing between
+     * matches and draws its randomness from getRandom may override this to have its matches played in parallel.
+     * @return the copy, or null to have every match played on this instance in order
+     */
+    public Player copyForMatch(){
+    	return copyForWorker();
+    }
+
     /**
      * Get Agent Name used by GameMaster.
      * @return Name of player
@@ -112,25 +163,33 @@ public abstract class Player{
     }
     /**
      * Game Master stores a copy of the player strategies inside the player.
+     * Safe to call from several threads at once and in any game order.
      * @param index Game number
      * @param ms Agent's strategy in the game when playing as playerNum
      * @param playerNum Row Player = 1, Column Player = 2
      */
     public void addStrategy(int index, MixedStrategy ms, int playerNum){
-    	if(strategies.size() == index)
-    		strategies.add(new StrategyHolder());
-    	strategies.get(index).addStrategy(ms, playerNum);
+    	strategies.put(index, playerNum, ms);
     }
     /**
      * Standard accessor
      * @param index Game Number
-     * @param playerNum Row Player = 0, Column Player = 1
-     * @return the mixed strategy
+     * @param playerNum Row Player = 1, Column Player = 2
+     * @return a copy of the stored mixed strategy that the agent may change, or null if none was stored
      */
     public MixedStrategy getStrategy(int index, int playerNum){
-    	if(index > strategies.size())
-    		return null;
-    	return strategies.get(index).getStrategy(playerNum);
+    	MixedStrategy ms = strategies.get(index, playerNum);
+    	return ms == null ? null : new MixedStrategy(ms.getProbs());
+    }
+    /**
+     * Zero copy accessor for GameMaster's own readers (round-robin, analysis).
+     * Storing a strategy again for the same game and seat changes what the view reads.
+     * @param index Game Number
+     * @param playerNum Row Player = 1, Column Player = 2
+     * @return a read only view of the stored mixed strategy, or null if none was stored
+     */
+    MixedStrategy getStrategyView(int index, int playerNum){
+    	return strategies.get(index, playerNum);
     }
     
     /**
@@ -164,10 +223,7 @@ public abstract class Player{
 	 * @param s2 strategy for player 2
 	 */
 	public void addHistory(MixedStrategy s1, MixedStrategy s2){
-		MixedStrategy ms[] = new MixedStrategy[2];
-		ms[0] = new MixedStrategy(s1.getProbs());
-		ms[1] = new MixedStrategy(s2.getProbs());
-		history.add(ms);
+		history.add(s1, s2);
 	}
 	
 	/**
@@ -183,7 +239,7 @@ public abstract class Player{
 	 * @return number of times previously run
 	 */
 	public int getCurrentRepeatCount(){
-		return history.size();
+		return (int)history.getRounds();
 	}
 	
 	/**
@@ -193,15 +249,46 @@ public abstract class Player{
 	public void saveLastPayoffs(double payoffs[]){
 		lastPayoffs[0] = payoffs[0];
 		lastPayoffs[1] = payoffs[1];
+		history.addPayoffs(payoffs);
 	}
 	
 	/**
-	 * Get the game history
-	 * @return the game history
+	 * Get the game history. Each round is {row strategy, column strategy}. The strategies are read only
+	 * views, so copy one (new MixedStrategy(ms.getProbs())) before changing it. In WINDOW mode (see
+	 * setHistory) a view may later show a newer round. Use new ArrayList&lt;MixedStrategy[]&gt;(getHistory())
+	 * for a list of your own. The frequencies and payoffs are on the History in the history field.
+	 * @return the rounds kept, oldest first
 	 */
-	public ArrayList<MixedStrategy[]> getHistory(){
+	public List<MixedStrategy[]> getHistory(){
 		return history;
 	}
+
+	/**
+	 * Choose what the history keeps, e.g. History.summary() for an agent that only needs the
+	 * empirical frequencies or new History(k) for the last k rounds. Call from the constructor.
+	 * @param history an empty history
+	 */
+	protected void setHistory(History history){
+		this.history = history;
+	}
+	/**
+	 * Random numbers for this agent. GameMaster gives each solve and each match its own stream
+	 * derived from the master seed, so an agent that draws from it plays the same whichever thread
+	 * runs it. Outside of GameMaster it is the calling thread's stream.
+	 * @return the generator, only use it while solving
+	 */
+	protected Random getRandom(){
+		return random != null ? random : RandomStreams.current();
+	}
+
+	/**
+	 * Set the random stream of the next solve or match
+	 * @param random the generator, null for the calling thread's stream
+	 */
+	public void setRandom(Random random){
+		this.random = random;
+	}
+
 	/**
 	 * Update the name
 	 * @param name the new player name
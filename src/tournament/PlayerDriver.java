@@ -22,6 +22,8 @@ public class PlayerDriver implements Runnable {
 	private double expected[];
 	/**Parameters**/
 	private Parameters param;
+	/**Exception thrown by the player during the last run**/
+	private Exception error;
 
 	/**
 	 * General constructor
@@ -55,6 +57,7 @@ public class PlayerDriver implements Runnable {
 	 * methods. Any exceptions or time outs will only harm this thread and will not affect GameMaster
 	 */
 	public void run() {
+		error = null;
 		try{
 			switch(state){
 			case INIT:
@@ -75,6 +78,7 @@ public class PlayerDriver implements Runnable {
 				break;
 			}
 		}catch(Exception e){
+			error = e;
 			e.printStackTrace();
 		}
 		/*try{
@@ -104,6 +108,22 @@ public class PlayerDriver implements Runnable {
 		return solution;
 	}
 	
+	/**
+	 * Exception thrown by the player during the last run
+	 * @return the exception or null if there was none
+	 */
+	public Exception getError(){
+		return error;
+	}
+
+	/**
+	 * The player being driven
+	 * @return the player
+	 */
+	public Player getPlayer(){
+		return player;
+	}
+
 	/**
 	 * Is of type Manual Override
 	 * @return true when ManualOverride, false otherwise
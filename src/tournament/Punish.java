@@ -35,4 +35,9 @@ public class Punish extends Player{
 		return SolverUtils.computeMinMax(mg, playerNumber);
     }
 
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
 }
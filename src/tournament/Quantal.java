@@ -75,4 +75,10 @@ public class Quantal extends Player{
 		result = SolverUtils.computeQuantalBestResponse(mg,playerNumber,opponent,lambda);
 		return result;
 	}
+
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
 }
@@ -0,0 +1,341 @@
+package tournament;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import games.*;
+import util.RandomStreams;
+import util.SolverUtils;
+
+/**
+ * Plays the repeated game tournament: every pair of agents on every game, numRepeat rounds with the
+ * first agent as the row player then numRepeat rounds with the seats swapped.
+ * <p>
+ * A match whose agents can both be copied (see Player.copyForMatch) is played on a worker thread with
+ * its own copies, the other matches are played on the original agents on the calling thread. A copy
+ * whose solve failed or timed out is replaced for the rest of the match, since the solve may still be
+ * running on it. At most a few matches per worker are played ahead and their results are folded into
+ * the statistics in the order of the sequential loops, so the statistics are the same as a single
+ * threaded run.
+ * </p>
+ * Each round reuses the drivers of the match and the payoff array and stores the strategies into the
+ * agents' History without creating objects. Cacheable agents (see Player.getCacheKey) play the same
+ * strategy in every round of a seat, so they are only asked once per seat.
+ * Each agent draws from a random stream (see Player.getRandom) keyed by the match, its half and the
+ * seat, so the rounds are the same whichever thread plays them.
+ */
+public class RepeatedGameEngine {
+
+	/**Matches played ahead of the statistics per worker*/
+	private static final int AHEAD = 4;
+	/**first key of the random streams of the matches*/
+	private static final long STREAMS = 2;
+
+	private final int parallelism;
+	private final AgentExecutor agents;
+	private final long timeLimit;
+	private final boolean verbose;
+	private final ExecutorService workers;
+
+	/**
+	 * Create an engine
+	 * @param parallelism number of matches played at once, 1 plays everything on the calling thread
+	 * @param agents runs the agents with a time limit
+	 * @param timeLimit time limit of a round in milliseconds
+	 * @param verbose print every round, this plays everything on the calling thread
+	 */
+	public RepeatedGameEngine(int parallelism, AgentExecutor agents, long timeLimit, boolean verbose){
+		this.parallelism = parallelism;
+		this.agents = agents;
+		this.timeLimit = timeLimit;
+		this.verbose = verbose;
+		this.workers = parallelism > 1 && !verbose ? Executors.newFixedThreadPool(parallelism, new ThreadFactory(){
+			private final AtomicInteger count = new AtomicInteger();
+			public Thread newThread(Runnable r){
+				Thread t = new Thread(r, "repeat-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		}) : null;
+	}
+
+	/**
+	 * Play every pair of different agents on every game in both seats
+	 * @param players the agents
+	 * @param agentGames the games given to the agents
+	 * @param payoffGames the games the payoffs are computed on
+	 * @param numGames number of games to play, the first ones of each list
+	 * @param numRepeat rounds per seat
+	 * @param stats tournament statistics to add the result of every round to
+	 */
+	public void play(ArrayList<Player> players, ArrayList<MatrixGame> agentGames, ArrayList<MatrixGame> payoffGames, int numGames, int numRepeat, TournamentStatistics stats){
+		int numPlayers = players.size();
+		boolean[] copyable = new boolean[numPlayers];
+		for(int p = 0; p < numPlayers; p++)
+			copyable[p] = workers != null && players.get(p).copyForMatch() != null;
+		ArrayDeque<Pending> ahead = new ArrayDeque<Pending>();
+		int maxAhead = parallelism * AHEAD;
+		int[] next = {0, 1, 0};//p1, p2, game of the next match to schedule
+		while(true){
+			while(ahead.size() < maxAhead && next[0] < numPlayers - 1){
+				Pending pending = new Pending(next[0], next[1], next[2]);
+				if(copyable[pending.p1] && copyable[pending.p2]){
+					MatrixGame agentGame = agentGames.get(pending.game);
+					MatrixGame payoffGame = payoffGames.get(pending.game);
+					pending.future = workers.submit(() -> {
+						pending.result = playCopies(players.get(pending.p1), players.get(pending.p2), pending.p1, pending.p2, pending.game, agentGame, payoffGame, numRepeat);
+						return null;
+					});
+				}
+				ahead.add(pending);
+				if(++next[2] == numGames){
+					next[2] = 0;
+					if(++next[1] == numPlayers){
+						next[0]++;
+						next[1] = next[0] + 1;
+					}
+				}
+			}
+			Pending pending = ahead.poll();
+			if(pending == null)
+				break;
+			if(pending.future == null)
+				playOriginals(players, pending.p1, pending.p2, pending.game, agentGames.get(pending.game), payoffGames.get(pending.game), numRepeat, stats);
+			else{
+				try{
+					pending.future.get();
+				}catch(InterruptedException e){
+					Thread.currentThread().interrupt();
+					return;
+				}catch(Exception e){
+					e.printStackTrace();
+					continue;
+				}
+				fold(players, pending, numRepeat, stats);
+			}
+		}
+	}
+
+	/**
+	 * Play a match on the agents themselves, recording every round as it is played
+	 */
+	private void playOriginals(ArrayList<Player> players, int p1, int p2, int game, MatrixGame agentGame, MatrixGame payoffGame, int numRepeat, TournamentStatistics stats){
+		Player player1 = players.get(p1);
+		Player player2 = players.get(p2);
+		MatrixGame mg = agentGame.view();//gives the agent a copy of the game
+		if(verbose) System.out.println("Game number" + game);
+		if(verbose) System.out.println(player1.getName()+" vs "+player2.getName());
+		double[] payoffs = new double[2];
+		Seat row = new Seat(player1, player1);
+		Seat column = new Seat(player2, player2);
+		row.start(game, mg, p1, p2, 1);
+		column.start(game, mg, p1, p2, 2);
+		for(int repeat = 0; repeat < numRepeat; repeat++){
+			if(verbose) System.out.println("repeat "+repeat);
+			round(row, column, payoffGame, payoffs);
+			stats.record(p1,p2,payoffs);
+			if(verbose) System.out.println(payoffs[0]);
+			if(verbose) System.out.println(payoffs[1]);
+			if(verbose) System.out.println(player2.getName()+" vs "+player1.getName());
+		}
+		row = new Seat(player2, player2);
+		column = new Seat(player1, player1);
+		row.start(game, mg, p2, p1, 1);
+		column.start(game, mg, p2, p1, 2);
+		for(int repeat = 0; repeat < numRepeat; repeat++){
+			if(verbose) System.out.println("repeat "+repeat);
+			round(row, column, payoffGame, payoffs);
+			stats.record(p2,p1,payoffs);
+			if(verbose) System.out.println(payoffs[0]);
+			if(verbose) System.out.println(payoffs[1]);
+			if(verbose) System.out.println(player2.getName()+" vs "+player1.getName());
+		}
+	}
+
+	/**
+	 * Play a match on copies of the agents, keeping the payoffs of every round and the strategies
+	 * the copies stored for the game
+	 */
+	private Result playCopies(Player owner1, Player owner2, int p1, int p2, int game, MatrixGame agentGame, MatrixGame payoffGame, int numRepeat){
+		Player player1 = owner1.copyForMatch();
+		Player player2 = owner2.copyForMatch();
+		MatrixGame mg = agentGame.view();
+		Result result = new Result(numRepeat);
+		double[] payoffs = new double[2];
+		Seat row = new Seat(player1, owner1);
+		Seat column = new Seat(player2, owner2);
+		row.start(game, mg, p1, p2, 1);
+		column.start(game, mg, p1, p2, 2);
+		for(int repeat = 0; repeat < numRepeat; repeat++){
+			round(row, column, payoffGame, payoffs);
+			result.payoffs[2 * repeat] = payoffs[0];
+			result.payoffs[2 * repeat + 1] = payoffs[1];
+		}
+		player1 = row.player;//a seat replaces a copy whose solve failed
+		player2 = column.player;
+		result.strategies[0] = stored(player1, game, 1);
+		result.strategies[1] = stored(player2, game, 2);
+		row = new Seat(player2, owner2);
+		column = new Seat(player1, owner1);
+		row.start(game, mg, p2, p1, 1);
+		column.start(game, mg, p2, p1, 2);
+		for(int repeat = 0; repeat < numRepeat; repeat++){
+			round(row, column, payoffGame, payoffs);
+			result.payoffs[2 * (numRepeat + repeat)] = payoffs[0];
+			result.payoffs[2 * (numRepeat + repeat) + 1] = payoffs[1];
+		}
+		result.strategies[2] = stored(row.player, game, 1);
+		result.strategies[3] = stored(column.player, game, 2);
+		return result;
+	}
+
+	/**
+	 * Record a match played on copies and give the agents the strategies their copies stored
+	 */
+	private void fold(ArrayList<Player> players, Pending pending, int numRepeat, TournamentStatistics stats){
+		double[] payoffs = new double[2];
+		double[] results = pending.result.payoffs;
+		for(int repeat = 0; repeat < numRepeat; repeat++){
+			payoffs[0] = results[2 * repeat];
+			payoffs[1] = results[2 * repeat + 1];
+			stats.record(pending.p1,pending.p2,payoffs);
+		}
+		for(int repeat = numRepeat; repeat < 2 * numRepeat; repeat++){
+			payoffs[0] = results[2 * repeat];
+			payoffs[1] = results[2 * repeat + 1];
+			stats.record(pending.p2,pending.p1,payoffs);
+		}
+		MixedStrategy[] strategies = pending.result.strategies;
+		Player player1 = players.get(pending.p1);
+		Player player2 = players.get(pending.p2);
+		if(strategies[0] != null) player1.addStrategy(pending.game, strategies[0], 1);
+		if(strategies[1] != null) player2.addStrategy(pending.game, strategies[1], 2);
+		if(strategies[2] != null) player2.addStrategy(pending.game, strategies[2], 1);
+		if(strategies[3] != null) player1.addStrategy(pending.game, strategies[3], 2);
+	}
+
+	private static MixedStrategy stored(Player player, int game, int seat){
+		MixedStrategy ms = player.getStrategyView(game, seat);
+		return ms == null ? null : new MixedStrategy(ms.getProbs());//the copy may store over it in a later match
+	}
+
+	/**
+	 * Execute both agents, add to their history and write the payoffs of the round
+	 */
+	private void round(Seat row, Seat column, MatrixGame payoffGame, double[] payoffs){
+		MixedStrategy s1 = row.solve();
+		MixedStrategy s2 = column.solve();
+		row.player.addHistory(s1, s2);
+		column.player.addHistory(s1, s2);
+		SolverUtils.expectedPayoffs(s1, s2, payoffGame, payoffs);
+		row.player.saveLastPayoffs(payoffs);
+		column.player.saveLastPayoffs(payoffs);
+	}
+
+	/**
+	 * An agent in a seat for the rounds of one half of a match
+	 */
+	private class Seat {
+		Player player;
+		final Player owner;
+		final boolean cacheable;
+		PlayerDriver driver;
+		MixedStrategy fixed;
+		int game;
+		MatrixGame mg;
+		int first;//index of the row agent
+		int second;//index of the column agent
+		int playerNumber;
+		int numActions;//of the seat
+
+		Seat(Player player, Player owner){
+			this.player = player;
+			this.owner = owner;
+			this.cacheable = owner.getCacheKey() != null;
+		}
+
+		/**
+		 * Set up the agent for numRepeat rounds, first and second are the indices of the row and column agent
+		 */
+		void start(int game, MatrixGame mg, int first, int second, int playerNumber){
+			this.game = game;
+			this.mg = mg;
+			this.first = first;
+			this.second = second;
+			this.playerNumber = playerNumber;
+			numActions = mg.getNumActions(playerNumber - 1);
+			player.resetHistory();
+			setUp(player, RandomStreams.forKeys(STREAMS, game, first, second, playerNumber));
+		}
+
+		private void setUp(Player p, Random random){
+			p.setGame(game);//legacy
+			p.setGame(mg.view());
+			p.setPlayerNumber(playerNumber);
+			p.setRandom(random);
+		}
+
+		/**
+		 * Carry the match over to a new copy of the agent, the abandoned solve may still be running on
+		 * the old one. The new copy draws from a stream keyed by the rounds played so far.
+		 */
+		private void replace(){
+			Player copy = owner.copyForMatch();
+			if(copy == null)
+				return;
+			copy.setHistory(player.history.copy());
+			copy.lastPayoffs = player.lastPayoffs.clone();
+			setUp(copy, RandomStreams.forKeys(STREAMS, game, first, second, playerNumber, player.history.getRounds()));
+			player = copy;
+		}
+
+		MixedStrategy solve(){
+			if(fixed != null)
+				return fixed;
+			if(driver == null)
+				driver = new PlayerDriver(PlayerState.SOLVE, player);
+			driver.state = PlayerState.SOLVE;
+			if(!agents.run(driver, owner, timeLimit)){
+				//the abandoned driver still holds the last round's solution or a late write, never read
+				//from it again and play the default uniform strategy instead
+				driver = null;
+				if(player != owner)
+					replace();
+				return new MixedStrategy(numActions);
+			}
+			MixedStrategy ms = driver.getSolution();
+			if(cacheable)
+				fixed = ms;
+			return ms;
+		}
+	}
+
+	private static class Pending {
+		final int p1;
+		final int p2;
+		final int game;
+		Future<?> future;
+		volatile Result result;
+
+		Pending(int p1, int p2, int game){
+			this.p1 = p1;
+			this.p2 = p2;
+			this.game = game;
+		}
+	}
+
+	private static class Result {
+		final double[] payoffs;
+		final MixedStrategy[] strategies = new MixedStrategy[4];
+
+		Result(int numRepeat){
+			payoffs = new double[4 * numRepeat];
+		}
+	}
+}
@@ -55,21 +55,13 @@ public class Resilient extends Player{
 		}
 		int actions = mg.getNumActions(playerNumber);
 		opp = new MixedStrategy(actions);
-		double maxvalue = mg.getExtremePayoffs(playerNumber)[0]; //0 is max, 1 is min
+		double maxvalue = mg.getStatistics().getMax(playerNumber);
 		double[] v1 = new double[actions];
 		double[] v2 = new double[actions];
-		MixedStrategy ownStrategy = new MixedStrategy(actions);
-		ownStrategy.setZeros();
-		double expected = 0.0;
+		double[] values = SolverUtils.computeActionValues(mg, playerNumber, opp, playerNumber);
 		for(int i = 1; i <= actions; i++){
-			ownStrategy.setProb(i, 1.0);
-			if (playerNumber == 0)
-				expected = SolverUtils.expectedPayoffs(ownStrategy, opp, mg)[playerNumber];
-			else
-				expected = SolverUtils.expectedPayoffs(opp, ownStrategy, mg)[playerNumber];
-			v1[i-1] = expected;
-			v2[i-1] = maxvalue-expected;
-			ownStrategy.setProb(i, 0.0);
+			v1[i-1] = values[i];
+			v2[i-1] = maxvalue-values[i];
 		}
 		double[] v3 = new double[actions];
 		for(int i = 0; i < actions; i++){
@@ -81,4 +73,12 @@ public class Resilient extends Player{
 		return SolverUtils.computeQuantalBestResponse(mg,playerNumber, SolverUtils.computeBestResponse(mg, 1-playerNumber, SolverUtils.logit(v3, lambda)),lambda);
     }
 
+	/**
+	 * The key carries lambda and alpha, which change the strategies
+	 */
+	@Override
+	public String getCacheKey(){
+		return newName+":"+lambda+":"+alpha;
+	}
+
 }
@@ -49,4 +49,12 @@ public class Robust extends Player{
 		return SolverUtils.computeRobustResponse(mg,playerNumber,lambda);
     }
 
+	/**
+	 * The key carries lambda, which changes the strategies
+	 */
+	@Override
+	public String getCacheKey(){
+		return newName+":"+lambda;
+	}
+
 }
@@ -0,0 +1,232 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import games.*;
+import util.*;
+
+/**
+ * Plays the one shot round-robin (every pair of agents on every game, both seats) on a ForkJoinPool.
+ * Each task evaluates a block of the (p1, p2, game) space and writes the match payoffs into its own
+ * part of a result slab. The blocks are folded into the tournament statistics as soon as they are
+ * done, in the same order as the sequential loops, so the standings can be reported while the
+ * round-robin runs and the results are bit-identical to a single threaded run.
+ * <p>
+ * In sampled play (see setSampling) a match is played by drawing outcomes with a PayoffSampler and
+ * the estimated expected payoffs are recorded instead of the exact ones. Each match draws from its
+ * own stream derived from the seed and the match index (see RandomStreams), so the results do not
+ * depend on the number of threads.
+ * </p>
+ */
+public class RoundRobin {
+
+	/**Matches evaluated by a task before it stops splitting*/
+	private static final int THRESHOLD = 256;
+
+	private final ForkJoinPool pool;
+	private final boolean verbose;
+	private int draws = 0;
+	private PayoffSampler.Estimator estimator = PayoffSampler.Estimator.PLAIN;
+	private long seed = 0;
+	private double meanInterval = 0;
+	private double maxInterval = 0;
+
+	/**
+	 * Create an engine with the given number of worker threads
+	 * @param parallelism number of threads, 1 plays on the calling thread
+	 * @param verbose print every match when merging the results
+	 */
+	public RoundRobin(int parallelism, boolean verbose){
+		this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Play matches by sampling outcomes instead of computing the exact expected payoffs.
+	 * Matches with an invalid strategy are still computed exactly.
+	 * @param draws outcomes drawn per match, 0 for exact expected payoffs
+	 * @param estimator how the expected payoff is estimated from the draws
+	 * @param seed seed of the draws
+	 */
+	public void setSampling(int draws, PayoffSampler.Estimator estimator, long seed){
+		this.draws = draws;
+		this.estimator = estimator;
+		this.seed = seed;
+	}
+
+	/**
+	 * Average half width of the 95% confidence intervals of the last sampled round-robin
+	 * @return the average over every match and player, 0 when playing exactly
+	 */
+	public double getMeanConfidenceInterval(){
+		return meanInterval;
+	}
+
+	/**
+	 * Widest 95% confidence interval of the last sampled round-robin
+	 * @return the largest half width, 0 when playing exactly
+	 */
+	public double getMaxConfidenceInterval(){
+		return maxInterval;
+	}
+
+	/**
+	 * Play every pair of agents (including self play) on every game and accumulate the results
+	 * @param players the agents, strategies must already be computed
+	 * @param games the games to play
+	 * @param stats tournament statistics to add the results to
+	 */
+	public void play(ArrayList<Player> players, ArrayList<MatrixGame> games, TournamentStatistics stats){
+		int numPlayers = players.size();
+		int numGames = games.size();
+		int numPairs = numPlayers * (numPlayers + 1) / 2;
+		int[] first = new int[numPairs];
+		int[] second = new int[numPairs];
+		int pair = 0;
+		for(int p1 = 0; p1 < numPlayers; p1++)
+			for(int p2 = p1; p2 < numPlayers; p2++, pair++){
+				first[pair] = p1;
+				second[pair] = p2;
+			}
+		//four payoffs per (pair, game): p1 as row then p2 as row
+		double[] results = new double[numPairs * numGames * 4];
+		double[] intervals = draws > 0 ? new double[results.length] : null;
+		//blocks are played on the pool and folded in order as soon as each one is done
+		int numMatches = numPairs * numGames;
+		ArrayList<MatchTask> blocks = new ArrayList<MatchTask>();
+		for(int start = 0; start < numMatches; start += THRESHOLD){
+			MatchTask block = new MatchTask(players, games, first, second, results, start, Math.min(start + THRESHOLD, numMatches), draws, estimator, seed, intervals);
+			blocks.add(block);
+			if(pool != null)
+				pool.execute(block);
+		}
+		for(MatchTask block : blocks){
+			if(pool == null)
+				block.compute();
+			else
+				block.join();
+			merge(players, first, second, numGames, results, block.start, block.end, stats);
+		}
+		meanInterval = 0;
+		maxInterval = 0;
+		if(intervals != null && intervals.length > 0){
+			for(double h : intervals){
+				meanInterval += h;
+				maxInterval = Math.max(maxInterval, h);
+			}
+			meanInterval /= intervals.length;
+		}
+	}
+
+	/**
+	 * Fold the results of the matches in [start, end) into the statistics in the order of the
+	 * sequential tournament loops
+	 */
+	private void merge(ArrayList<Player> players, int[] first, int[] second, int numGames, double[] results, int start, int end, TournamentStatistics stats){
+		double[] payoffs = new double[2];
+		for(int i = start; i < end; i++){
+			int pair = i / numGames;
+			int game = i % numGames;
+			int p1 = first[pair];
+			int p2 = second[pair];
+			int r = i * 4;
+			payoffs[0] = results[r];
+			payoffs[1] = results[r + 1];
+			if(verbose)	System.out.println("Game number" + game);
+			if(verbose) System.out.println(players.get(p1).getName()+" vs "+players.get(p2).getName());
+			stats.record(p1,p2,payoffs);
+			if(verbose) System.out.println(payoffs[0]);
+			if(verbose) System.out.println(payoffs[1]);
+			if(verbose) System.out.println(players.get(p2).getName()+" vs "+players.get(p1).getName());
+			payoffs[0] = results[r + 2];
+			payoffs[1] = results[r + 3];
+			stats.record(p2,p1,payoffs);
+			if(verbose) System.out.println(payoffs[0]);
+			if(verbose) System.out.println(payoffs[1]);
+			if(verbose) System.out.println();
+		}
+	}
+
+	/**
+	 * Evaluates the matches in [start, end) of the flattened (pair, game) index
+	 */
+	private static class MatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final ArrayList<Player> players;
+		private final ArrayList<MatrixGame> games;
+		private final int[] first;
+		private final int[] second;
+		private final double[] results;
+		private final int start;
+		private final int end;
+		private final int draws;
+		private final PayoffSampler.Estimator estimator;
+		private final long seed;
+		private final double[] intervals;
+
+		MatchTask(ArrayList<Player> players, ArrayList<MatrixGame> games, int[] first, int[] second, double[] results, int start, int end,
+				int draws, PayoffSampler.Estimator estimator, long seed, double[] intervals){
+			this.players = players;
+			this.games = games;
+			this.first = first;
+			this.second = second;
+			this.results = results;
+			this.start = start;
+			this.end = end;
+			this.draws = draws;
+			this.estimator = estimator;
+			this.seed = seed;
+			this.intervals = intervals;
+		}
+
+		protected void compute(){
+			if(end - start > THRESHOLD){
+				int mid = (start + end) >>> 1;
+				invokeAll(new MatchTask(players, games, first, second, results, start, mid, draws, estimator, seed, intervals),
+						new MatchTask(players, games, first, second, results, mid, end, draws, estimator, seed, intervals));
+				return;
+			}
+			int numGames = games.size();
+			double[] payoffs = new double[2];
+			for(int i = start; i < end; i++){
+				int pair = i / numGames;
+				int game = i % numGames;
+				Player player1 = players.get(first[pair]);
+				Player player2 = players.get(second[pair]);
+				MatrixGame mg = games.get(game);
+				if(draws > 0){
+					PayoffSampler sampler = new PayoffSampler(RandomStreams.derive(seed, i));
+					sampler.setEstimator(estimator);
+					play(sampler, player1.getStrategyView(game,1),player2.getStrategyView(game,2),mg,payoffs,i * 4);
+					play(sampler, player2.getStrategyView(game,1),player1.getStrategyView(game,2),mg,payoffs,i * 4 + 2);
+					continue;
+				}
+				SolverUtils.expectedPayoffs(player1.getStrategyView(game,1),player2.getStrategyView(game,2),mg,payoffs);
+				results[i * 4] = payoffs[0];
+				results[i * 4 + 1] = payoffs[1];
+				SolverUtils.expectedPayoffs(player2.getStrategyView(game,1),player1.getStrategyView(game,2),mg,payoffs);
+				results[i * 4 + 2] = payoffs[0];
+				results[i * 4 + 3] = payoffs[1];
+			}
+		}
+
+		/**
+		 * Sampled match, exact when a strategy is invalid
+		 */
+		private void play(PayoffSampler sampler, MixedStrategy s1, MixedStrategy s2, MatrixGame mg, double[] payoffs, int r){
+			if(!(s1.isValid() && s2.isValid())){
+				SolverUtils.expectedPayoffs(s1,s2,mg,payoffs);
+				results[r] = payoffs[0];
+				results[r + 1] = payoffs[1];
+				return;
+			}
+			PayoffSampler.Estimate e = sampler.sample(s1,s2,mg,draws);
+			results[r] = e.getMean(0);
+			results[r + 1] = e.getMean(1);
+			intervals[r] = e.getConfidenceInterval(0);
+			intervals[r + 1] = e.getConfidenceInterval(1);
+		}
+	}
+}
@@ -40,4 +40,9 @@ public class SolidRock extends Player{
     	return ms;
     }
 
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
 }
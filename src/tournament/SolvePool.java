@@ -0,0 +1,177 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import games.*;
+import util.RandomStreams;
+
+/**
+ * Solves every (game, agent, seat) of a tournament setting, fanning the solves out over a fixed
+ * number of worker threads. Each worker solves with its own copy of an agent (see
+ * Player.copyForWorker) so no agent instance is used by two threads; a copy whose solve failed or
+ * timed out is dropped, since the solve may still be running on it. Agents that cannot be copied
+ * solve on their own instance on the calling thread, in the original game by game order, so agents
+ * with history or randomness see exactly the calls they always did. The strategies are stored into
+ * the original agents once all solves are done. Every solve draws from its own random stream (see
+ * Player.getRandom) keyed by the game, agent and seat, so it does not depend on the thread.
+ */
+public class SolvePool {
+
+	/**first key of the random streams of the solves*/
+	private static final long STREAMS = 1;
+
+	private final int parallelism;
+	private final AgentExecutor agents;
+	private final StrategyCache cache;
+	private final long timeLimit;
+	private final ExecutorService workers;
+
+	/**
+	 * Create a pool
+	 * @param parallelism number of solves run at once, 1 solves everything on the calling thread
+	 * @param agents runs the agents with a time limit
+	 * @param cache strategies of deterministic agents
+	 * @param timeLimit time limit of a solve in milliseconds
+	 */
+	public SolvePool(int parallelism, AgentExecutor agents, StrategyCache cache, long timeLimit){
+		this.parallelism = parallelism;
+		this.agents = agents;
+		this.cache = cache;
+		this.timeLimit = timeLimit;
+		this.workers = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, new ThreadFactory(){
+			private final AtomicInteger count = new AtomicInteger();
+			public Thread newThread(Runnable r){
+				Thread t = new Thread(r, "solver-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		}) : null;
+	}
+
+	/**
+	 * Have every agent solve every game in both seats
+	 * @param players the agents
+	 * @param rowGames the games given to the row player
+	 * @param columnGames the games given to the column player (the same list when symmetric)
+	 * @param numGames number of games to solve, the first ones of each list
+	 */
+	public void solve(ArrayList<Player> players, ArrayList<MatrixGame> rowGames, ArrayList<MatrixGame> columnGames, int numGames){
+		int numPlayers = players.size();
+		MatrixGame[] views = new MatrixGame[numGames * 2];
+		StrategyCache.GameKey[] keys = new StrategyCache.GameKey[numGames * 2];
+		for(int g = 0; g < numGames; g++){
+			views[2 * g] = rowGames.get(g).view();//gives the agent a copy of the game
+			keys[2 * g] = StrategyCache.gameKey(views[2 * g]);
+			if(columnGames == rowGames){
+				views[2 * g + 1] = views[2 * g];
+				keys[2 * g + 1] = keys[2 * g];
+			}
+			else{
+				views[2 * g + 1] = columnGames.get(g).view();
+				keys[2 * g + 1] = StrategyCache.gameKey(views[2 * g + 1]);
+			}
+		}
+		//the copy that tells whether an agent can be copied is the first worker's copy
+		AtomicReferenceArray<Player> spares = new AtomicReferenceArray<Player>(numPlayers);
+		boolean[] confined = new boolean[numPlayers];
+		for(int p = 0; p < numPlayers; p++){
+			if(workers != null)
+				spares.set(p, players.get(p).copyForWorker());
+			confined[p] = spares.get(p) == null;
+		}
+		//solves in the sequential order: game, agent, seat
+		MixedStrategy[] results = new MixedStrategy[numGames * numPlayers * 2];
+		int[] parallel = new int[results.length];
+		int numParallel = 0;
+		for(int t = 0; t < results.length; t++)
+			if(!confined[(t / 2) % numPlayers])
+				parallel[numParallel++] = t;
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+		if(numParallel > 0){
+			AtomicInteger next = new AtomicInteger();
+			final int count = numParallel;
+			for(int w = 0; w < parallelism; w++)
+				futures.add(workers.submit(() -> {
+					Map<Player, Player> copies = new HashMap<Player, Player>();
+					int i;
+					while((i = next.getAndIncrement()) < count){
+						int t = parallel[i];
+						int g = t / (2 * numPlayers);
+						int seat = t % 2;
+						int p = (t / 2) % numPlayers;
+						Player owner = players.get(p);
+						Player copy = copies.get(owner);
+						if(copy == null){
+							copy = spares.getAndSet(p, null);
+							if(copy == null)
+								copy = owner.copyForWorker();
+							copies.put(owner, copy);
+						}
+						results[t] = solve(owner, copy, p, g, views[2 * g + seat], keys[2 * g + seat], seat + 1);
+						if(results[t] == null)
+							copies.remove(owner);//a timed out solve may still run on the copy, the next game gets a new one
+					}
+				}));
+		}
+		//agents that cannot be copied solve on the calling thread meanwhile
+		for(int t = 0; t < results.length; t++){
+			int p = (t / 2) % numPlayers;
+			if(!confined[p])
+				continue;
+			int g = t / (2 * numPlayers);
+			int seat = t % 2;
+			Player player = players.get(p);
+			MixedStrategy ms = solve(player, player, p, g, views[2 * g + seat], keys[2 * g + seat], seat + 1);
+			if(ms != null)
+				player.addStrategy(g, ms, seat + 1);
+		}
+		for(Future<?> f : futures){
+			try{
+				f.get();
+			}catch(Exception e){
+				e.printStackTrace();
+			}
+		}
+		for(int i = 0; i < numParallel; i++){
+			int t = parallel[i];
+			if(results[t] != null)
+				players.get((t / 2) % numPlayers).addStrategy(t / (2 * numPlayers), results[t], t % 2 + 1);
+		}
+	}
+
+	/**
+	 * Solve one game for one seat with the given instance of an agent, reusing a cached strategy
+	 * when the agent has already solved a game with the same payoffs
+	 * @param owner the agent
+	 * @param instance the instance that solves, the agent itself or its copy
+	 * @param agent index of the agent, keys its random stream
+	 * @param gameNumber the game number
+	 * @param mg the game (the agent is given a copy-on-write view)
+	 * @param key the cache key of mg
+	 * @param playerNumber Row Player = 1, Column Player = 2
+	 * @return the strategy or null if the agent failed
+	 */
+	private MixedStrategy solve(Player owner, Player instance, int agent, int gameNumber, MatrixGame mg, StrategyCache.GameKey key, int playerNumber){
+		MixedStrategy cached = cache.get(owner, key, playerNumber);
+		if(cached != null)
+			return cached;
+		instance.setGame(gameNumber);//legacy
+		instance.setGame(mg.view());
+		instance.setPlayerNumber(playerNumber);
+		instance.setRandom(RandomStreams.forKeys(STREAMS, gameNumber, agent, playerNumber));
+		PlayerDriver pDriver = new PlayerDriver(PlayerState.SOLVE, instance);
+		if(!agents.run(pDriver, owner, timeLimit))
+			return null;
+		MixedStrategy ms = instance.getStrategyView(gameNumber, playerNumber);
+		cache.put(owner, key, playerNumber, ms);
+		return ms;
+	}
+}
@@ -0,0 +1,187 @@
+package tournament;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import games.*;
+
+/**
+ * Content addressed cache of agent strategies. Entries are keyed by the payoffs of the game,
+ * the agent's class and cache key (see Player.getCacheKey) and the seat, so a deterministic
+ * agent is not asked to solve a game it has already solved, even in a later setting.
+ */
+public class StrategyCache {
+
+	private final int maxEntries;
+	private final Map<Key, MixedStrategy> cache;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Create a cache that forgets the least recently used strategies after maxEntries
+	 * @param maxEntries maximum number of stored strategies
+	 */
+	public StrategyCache(final int maxEntries){
+		this.maxEntries = maxEntries;
+		this.cache = new LinkedHashMap<Key, MixedStrategy>(1024, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<Key, MixedStrategy> eldest){
+				return size() > StrategyCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Snapshot the payoffs of a game for use as part of a cache key.
+	 * Take one snapshot per game and share it between agents and seats.
+	 * @param mg the game
+	 * @return the game key
+	 */
+	public static GameKey gameKey(MatrixGame mg){
+		return new GameKey(mg);
+	}
+
+	/**
+	 * Look up a strategy
+	 * @param player the agent
+	 * @param game snapshot of the game the agent is given
+	 * @param playerNum Row Player = 1, Column Player = 2
+	 * @return a copy of the stored strategy or null if the agent is not cacheable or the strategy is unknown
+	 */
+	public synchronized MixedStrategy get(Player player, GameKey game, int playerNum){
+		String agent = agentKey(player);
+		if(agent == null)
+			return null;
+		MixedStrategy ms = cache.get(new Key(agent, game, playerNum));
+		if(ms == null){
+			misses++;
+			return null;
+		}
+		hits++;
+		return new MixedStrategy(ms.getProbs());
+	}
+
+	/**
+	 * Store a strategy, ignored for agents that are not cacheable
+	 * @param player the agent
+	 * @param game snapshot of the game the agent was given
+	 * @param playerNum Row Player = 1, Column Player = 2
+	 * @param ms the agent's strategy
+	 */
+	public synchronized void put(Player player, GameKey game, int playerNum, MixedStrategy ms){
+		String agent = agentKey(player);
+		if(agent == null || ms == null)
+			return;
+		cache.put(new Key(agent, game, playerNum), new MixedStrategy(ms.getProbs()));
+	}
+
+	/**
+	 * Number of look ups that found a strategy
+	 * @return the hits
+	 */
+	public synchronized long getHits(){
+		return hits;
+	}
+
+	/**
+	 * Number of look ups for cacheable agents that did not find a strategy
+	 * @return the misses
+	 */
+	public synchronized long getMisses(){
+		return misses;
+	}
+
+	/**
+	 * Fraction of look ups that found a strategy
+	 * @return the hit rate, 0 when nothing was looked up
+	 */
+	public synchronized double getHitRate(){
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double)hits / total;
+	}
+
+	/**
+	 * Reset the hit and miss counters
+	 */
+	public synchronized void resetStats(){
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Remove all strategies
+	 */
+	public synchronized void clear(){
+		cache.clear();
+	}
+
+	/**
+	 * Summary of the counters
+	 * @return the summary
+	 */
+	public synchronized String toString(){
+		return "Strategy cache hits "+hits+" misses "+misses+" hit rate "+getHitRate();
+	}
+
+	private static String agentKey(Player player){
+		String key = player.getCacheKey();
+		if(key == null)
+			return null;
+		return player.getClass().getName() + "|" + key;
+	}
+
+	/**
+	 * Immutable snapshot of a game's payoffs
+	 */
+	public static final class GameKey {
+		private final int[] actions;
+		private final double[] payoffs;
+		private final int hash;
+
+		private GameKey(MatrixGame mg){
+			actions = mg.getNumActions();
+			payoffs = mg.getPayoffData();
+			hash = 31 * Arrays.hashCode(actions) + Arrays.hashCode(payoffs);
+		}
+
+		public int hashCode(){
+			return hash;
+		}
+
+		public boolean equals(Object o){
+			if(this == o)
+				return true;
+			if(!(o instanceof GameKey))
+				return false;
+			GameKey g = (GameKey)o;
+			return hash == g.hash && Arrays.equals(actions, g.actions) && Arrays.equals(payoffs, g.payoffs);
+		}
+	}
+
+	/**
+	 * Agent, game and seat
+	 */
+	private static final class Key {
+		private final String agent;
+		private final GameKey game;
+		private final int playerNum;
+
+		Key(String agent, GameKey game, int playerNum){
+			this.agent = agent;
+			this.game = game;
+			this.playerNum = playerNum;
+		}
+
+		public int hashCode(){
+			return (agent.hashCode() * 31 + game.hashCode()) * 31 + playerNum;
+		}
+
+		public boolean equals(Object o){
+			if(!(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return playerNum == k.playerNum && agent.equals(k.agent) && game.equals(k.game);
+		}
+	}
+}
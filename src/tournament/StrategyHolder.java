@@ -4,8 +4,9 @@ import games.MixedStrategy;
 /**
  * Auxiliary class for NFG. Keeps the Strategies nice and organized.
  * @author Oscar
- *
+ * @deprecated Player keeps its strategies in a StrategyStore
  */
+@Deprecated
 public class StrategyHolder {
 	private MixedStrategy ms[];
 	/**
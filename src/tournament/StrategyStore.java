@@ -0,0 +1,179 @@
+package tournament;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import games.MixedStrategy;
+
+/**
+ * Strategies of one agent indexed by game and seat, kept in preallocated double slabs instead of one
+ * MixedStrategy per game. Each seat has its own slab with room for numActions + 1 doubles per game
+ * (the layout of MixedStrategy, slot 0 unused), split into pages of gamesPerPage games so the slab
+ * grows without copying what is already stored.
+ * <p>
+ * Stores may come from any thread and in any game order. Copying the probabilities in is lock free,
+ * only allocating a new page takes a lock. A stored strategy is published by a flag written after the
+ * probabilities, so a reader on another thread either sees all of it or nothing. get returns
+ * a read only view over the slab, nothing is copied. Storing a strategy again for the same game and
+ * seat overwrites the slot the earlier views read from.
+ * </p>
+ * Strategies with a different number of actions than the first one stored for their seat are kept
+ * aside in a map.
+ */
+public class StrategyStore {
+
+	/** games per page when not given */
+	public static final int DEFAULT_GAMES_PER_PAGE = 64;
+
+	private final int gamesPerPage;
+	private final AtomicReferenceArray<Slab> slabs = new AtomicReferenceArray<Slab>(2);
+	private final ConcurrentHashMap<Long, MixedStrategy> overflow = new ConcurrentHashMap<Long, MixedStrategy>();
+
+	/**
+	 * Create an empty store
+	 */
+	public StrategyStore(){
+		this(DEFAULT_GAMES_PER_PAGE);
+	}
+
+	/**
+	 * Create an empty store
+	 * @param gamesPerPage number of games stored in each page of a slab
+	 */
+	public StrategyStore(int gamesPerPage){
+		if(gamesPerPage < 1)
+			throw new IllegalArgumentException("gamesPerPage must be positive: " + gamesPerPage);
+		this.gamesPerPage = gamesPerPage;
+	}
+
+	/**
+	 * Store a copy of a strategy
+	 * @param game game number
+	 * @param seat Row Player = 1, Column Player = 2
+	 * @param ms the strategy
+	 */
+	public void put(int game, int seat, MixedStrategy ms){
+		if(game < 0)
+			throw new IndexOutOfBoundsException("game " + game);
+		Slab slab = slab(seat, ms.getNumActions());
+		Long key = null;
+		if(!overflow.isEmpty())
+			key = key(game, seat);
+		if(slab.stride == ms.getNumActions() + 1){
+			slab.put(game, ms);
+			if(key != null)
+				overflow.remove(key);
+		}
+		else{
+			overflow.put(key == null ? key(game, seat) : key, new MixedStrategy(ms.getProbs()));
+			slab.clear(game);
+		}
+	}
+
+	/**
+	 * Stored strategy
+	 * @param game game number
+	 * @param seat Row Player = 1, Column Player = 2
+	 * @return a read only view of the strategy, or null if none was stored
+	 */
+	public MixedStrategy get(int game, int seat){
+		if(game < 0)
+			return null;
+		Slab slab = slabs.get(seat - 1);
+		if(slab != null){
+			MixedStrategy ms = slab.get(game);
+			if(ms != null)
+				return ms;
+		}
+		if(overflow.isEmpty())
+			return null;
+		return overflow.get(key(game, seat));
+	}
+
+	/**
+	 * Whether a strategy was stored
+	 * @param game game number
+	 * @param seat Row Player = 1, Column Player = 2
+	 * @return true if get would return a strategy
+	 */
+	public boolean contains(int game, int seat){
+		return get(game, seat) != null;
+	}
+
+	private Slab slab(int seat, int numActions){
+		Slab slab = slabs.get(seat - 1);
+		if(slab == null){
+			slabs.compareAndSet(seat - 1, null, new Slab(numActions + 1, gamesPerPage));
+			slab = slabs.get(seat - 1);
+		}
+		return slab;
+	}
+
+	private static Long key(int game, int seat){
+		return Long.valueOf(((long)game << 1) | (seat - 1));
+	}
+
+	/**
+	 * Pages of one seat, each holding gamesPerPage strategies of stride doubles
+	 */
+	private static final class Slab {
+		final int stride;
+		final int gamesPerPage;
+		private volatile Page[] pages = new Page[0];
+
+		Slab(int stride, int gamesPerPage){
+			this.stride = stride;
+			this.gamesPerPage = gamesPerPage;
+		}
+
+		void put(int game, MixedStrategy ms){
+			Page page = page(game / gamesPerPage, true);
+			int slot = game % gamesPerPage;
+			System.arraycopy(ms.getData(), ms.getOffset() + 1, page.data, slot * stride + 1, stride - 1);
+			page.present.set(slot, 1);//publishes the probabilities written above
+		}
+
+		void clear(int game){
+			Page page = page(game / gamesPerPage, false);
+			if(page != null)
+				page.present.set(game % gamesPerPage, 0);
+		}
+
+		MixedStrategy get(int game){
+			Page page = page(game / gamesPerPage, false);
+			int slot = game % gamesPerPage;
+			if(page == null || page.present.get(slot) == 0)
+				return null;
+			return MixedStrategy.view(page.data, slot * stride, stride - 1);
+		}
+
+		private Page page(int index, boolean create){
+			Page[] dir = pages;
+			if(index < dir.length && dir[index] != null)
+				return dir[index];
+			if(!create)
+				return null;
+			synchronized(this){
+				dir = pages;
+				if(index < dir.length && dir[index] != null)
+					return dir[index];
+				Page[] grown = new Page[index < dir.length ? dir.length : Math.max(index + 1, 2 * dir.length)];
+				System.arraycopy(dir, 0, grown, 0, dir.length);
+				grown[index] = new Page(gamesPerPage * stride, gamesPerPage);
+				pages = grown;
+				return grown[index];
+			}
+		}
+	}
+
+	private static final class Page {
+		final double[] data;
+		final AtomicIntegerArray present;
+
+		Page(int size, int games){
+			data = new double[size];
+			present = new AtomicIntegerArray(games);
+		}
+	}
+}
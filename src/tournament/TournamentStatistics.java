@@ -0,0 +1,271 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Accumulates the results of a tournament setting as the matches are played. Every match updates
+ * the payoff sums, the per pair mean and variance (Welford), the wins and a running average per
+ * agent, so the current standings can be reported while the tournament is still running.
+ * The summary metrics (average expected payoff, stability, minimum, regret and reverse payoff) are
+ * computed together in a single pass over the averaged payoff matrix and give exactly the same
+ * values as the static helpers in GameMaster.
+ */
+public class TournamentStatistics {
+
+	/**z value of a 95% confidence interval*/
+	private static final double Z95 = 1.959963984540054;
+
+	private final ArrayList<Player> players;
+	private final int numPlayers;
+	private final int numGames;
+	private final double[][] sums;
+	private final double[][] means;
+	private final double[][] m2;
+	private final long[][] counts;
+	private final double[] wins;
+	private final double[] totals;
+	private final long[] played;
+	private long matches = 0;
+	private long progressInterval = 0;
+	private long expectedMatches = 0;
+
+	private double[][] payoffMatrix;
+	private double[] averages;
+	private double[] stabilities;
+	private double[] minimums;
+	private double[] regrets;
+	private double[] reverse;
+
+	/**
+	 * Create an empty accumulator
+	 * @param players the agents in the tournament
+	 * @param numGames number of games in the setting, used to average the payoff matrix
+	 */
+	public TournamentStatistics(ArrayList<Player> players, int numGames){
+		this.players = players;
+		this.numPlayers = players.size();
+		this.numGames = numGames;
+		sums = new double[numPlayers][numPlayers];
+		means = new double[numPlayers][numPlayers];
+		m2 = new double[numPlayers][numPlayers];
+		counts = new long[numPlayers][numPlayers];
+		wins = new double[numPlayers];
+		totals = new double[numPlayers];
+		played = new long[numPlayers];
+	}
+
+	/**
+	 * Print the standings every interval matches
+	 * @param interval matches between reports, 0 turns reporting off
+	 * @param expected total number of matches in the setting (only used in the report), 0 if unknown
+	 */
+	public void setProgress(long interval, long expected){
+		progressInterval = interval;
+		expectedMatches = expected;
+	}
+
+	/**
+	 * Add the result of a match, same bookkeeping as GameMaster.updateResults
+	 * @param p1 index of the row player
+	 * @param p2 index of the column player
+	 * @param payoffs expected payoffs of the row and column player
+	 */
+	public void record(int p1, int p2, double[] payoffs){
+		add(p1, p2, payoffs[0]);
+		add(p2, p1, payoffs[1]);
+		if(payoffs[0]==payoffs[1]){//tie
+			wins[p1]+=0.5;
+			wins[p2]+=0.5;
+		}
+		else if(payoffs[0] > payoffs[1])
+			wins[p1]++;
+		else
+			wins[p2]++;
+		matches++;
+		payoffMatrix = null;
+		if(progressInterval > 0 && matches % progressInterval == 0)
+			printProgress();
+	}
+
+	private void add(int i, int j, double payoff){
+		sums[i][j] = sums[i][j] + payoff;
+		long n = ++counts[i][j];
+		double delta = payoff - means[i][j];
+		means[i][j] += delta / n;
+		m2[i][j] += delta * (payoff - means[i][j]);
+		totals[i] += payoff;
+		played[i]++;
+	}
+
+	/**
+	 * Print the number of matches played and the agent with the best running average
+	 */
+	public void printProgress(){
+		int leader = 0;
+		for(int i = 1; i < numPlayers; i++)
+			if(getRunningAverage(i) > getRunningAverage(leader))
+				leader = i;
+		String total = expectedMatches > 0 ? " of "+expectedMatches : "";
+		System.out.println("Matches played "+matches+total+"\tleader "+players.get(leader).getName()+"\t"+getRunningAverage(leader));
+	}
+
+	/**
+	 * Number of matches recorded so far
+	 * @return the number of matches
+	 */
+	public long getMatches(){
+		return matches;
+	}
+
+	/**
+	 * Average payoff per match of an agent over the matches played so far
+	 * @param player index of the agent
+	 * @return the running average, 0 before the agent has played
+	 */
+	public double getRunningAverage(int player){
+		return played[player] == 0 ? 0.0 : totals[player] / played[player];
+	}
+
+	/**
+	 * Mean payoff of one agent against another over their matches so far
+	 * @param player index of the agent receiving the payoff
+	 * @param opponent index of the opponent
+	 * @return the mean payoff per match
+	 */
+	public double getMean(int player, int opponent){
+		return means[player][opponent];
+	}
+
+	/**
+	 * Sample variance of the payoff of one agent against another
+	 * @param player index of the agent receiving the payoff
+	 * @param opponent index of the opponent
+	 * @return the variance, 0 with fewer than two matches
+	 */
+	public double getVariance(int player, int opponent){
+		long n = counts[player][opponent];
+		return n < 2 ? 0.0 : m2[player][opponent] / (n - 1);
+	}
+
+	/**
+	 * Half width of the 95% confidence interval of getMean (normal approximation)
+	 * @param player index of the agent receiving the payoff
+	 * @param opponent index of the opponent
+	 * @return the half width, the interval is getMean &plusmn; this value
+	 */
+	public double getConfidenceInterval(int player, int opponent){
+		long n = counts[player][opponent];
+		return n < 2 ? Double.POSITIVE_INFINITY : Z95 * Math.sqrt(getVariance(player, opponent) / n);
+	}
+
+	/**
+	 * Win counts, a tie is worth half a win
+	 * @return the wins of every agent
+	 */
+	public double[] getWins(){
+		return wins.clone();
+	}
+
+	/**
+	 * The tournament payoff matrix averaged over the games of the setting
+	 * (self play counts twice per game so the diagonal is halved again)
+	 * @return the averaged payoff matrix
+	 */
+	public double[][] getPayoffMatrix(){
+		summarize();
+		double[][] copy = new double[numPlayers][];
+		for(int i = 0; i < numPlayers; i++)
+			copy[i] = payoffMatrix[i].clone();
+		return copy;
+	}
+
+	/**
+	 * Average expected payoff of every agent, see GameMaster.calculateAverageExpectedPayoffs
+	 * @return the average expected payoffs
+	 */
+	public double[] getAverageExpectedPayoffs(){
+		summarize();
+		return averages.clone();
+	}
+
+	/**
+	 * Stability of every agent, see GameMaster.calculateStabilities
+	 * @return the stabilities
+	 */
+	public double[] getStabilities(){
+		summarize();
+		return stabilities.clone();
+	}
+
+	/**
+	 * Lowest average payoff of every agent against any agent, see GameMaster.findMinimums
+	 * @return the minimums
+	 */
+	public double[] getMinimums(){
+		summarize();
+		return minimums.clone();
+	}
+
+	/**
+	 * Regret of every agent, see GameMaster.calculateRegrets
+	 * @return the regrets
+	 */
+	public double[] getRegrets(){
+		summarize();
+		return regrets.clone();
+	}
+
+	/**
+	 * Average payoff scored against every agent, see GameMaster.calculateReversePayoffs
+	 * @return the reverse payoffs
+	 */
+	public double[] getReversePayoffs(){
+		summarize();
+		return reverse.clone();
+	}
+
+	/**
+	 * Average the payoff matrix and compute every summary metric in one pass over it.
+	 * The terms are added in the same order as the GameMaster helpers so the values are identical.
+	 */
+	private void summarize(){
+		if(payoffMatrix != null)
+			return;
+		double[][] matrix = new double[numPlayers][numPlayers];
+		for(int i = 0; i < numPlayers; i++)
+			for(int j = 0; j < numPlayers; j++){
+				matrix[i][j] = sums[i][j]/(2*numGames);
+				if(i == j)
+					matrix[i][j] = matrix[i][j]/2.0;
+			}
+		averages = new double[numPlayers];
+		minimums = new double[numPlayers];
+		regrets = new double[numPlayers];
+		reverse = new double[numPlayers];
+		stabilities = new double[numPlayers];
+		Arrays.fill(stabilities, Double.NEGATIVE_INFINITY);
+		for(int i = 0; i < numPlayers; i++){
+			double[] row = matrix[i];
+			double max = row[0];
+			minimums[i] = row[0];
+			for(int j = 0; j < numPlayers; j++){
+				double v = row[j];
+				averages[i] = averages[i] + v;
+				reverse[j] = reverse[j] + v;
+				if(j > 0 && minimums[i] > v)
+					minimums[i] = v;
+				if(max < v)
+					max = v;
+				if(i != j)
+					stabilities[j] = Math.max(stabilities[j], v - matrix[j][j]);
+			}
+			averages[i] = averages[i] / numPlayers;
+			for(int j = 0; j < numPlayers; j++)
+				regrets[i] += (max - row[j]) / numPlayers;
+		}
+		for(int j = 0; j < numPlayers; j++)
+			reverse[j] = reverse[j] / numPlayers;
+		payoffMatrix = matrix;
+	}
+}
@@ -35,4 +35,9 @@ public class UniformRandom extends Player{
     	return new MixedStrategy(mg.getNumActions(playerNumber));//default uniform random strategy
     }
 
+	@Override
+	public String getCacheKey(){
+		return newName;
+	}
+
 }
@@ -0,0 +1,157 @@
+package util;
+
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import games.MixedStrategy;
+
+/**
+ * Draws actions from a fixed distribution in constant time with Vose's alias method.
+ * The table is built once in O(n): every action gets an equal column holding its own probability
+ * and the action that fills the rest of the column, so a draw is one uniform number, one column
+ * lookup and one comparison.
+ * Actions are numbered from 1 as in MixedStrategy. A sampler is immutable and can be shared by threads.
+ * The source of the uniform numbers is pluggable: any DoubleSupplier of uniform numbers in [0, 1)
+ * (e.g. {@code rng::nextDouble} of a Random or SplittableRandom) or a Random.
+ */
+public class AliasSampler {
+
+	private final int n;
+	/**probability of keeping the column's own action, scaled to [0, 1]*/
+	private final double[] keep;
+	/**action filling the rest of each column*/
+	private final int[] alias;
+
+	/**
+	 * Sampler for a mixed strategy
+	 * @param ms the strategy, it need not be normalized
+	 */
+	public AliasSampler(MixedStrategy ms){
+		this(ms.getData(), ms.getOffset(), ms.getNumActions());
+	}
+
+	/**
+	 * Sampler for weights stored in an array
+	 * @param weights non negative weights, the weight of action a is weights[offset + a]
+	 * @param offset index of action 0
+	 * @param n number of actions
+	 */
+	public AliasSampler(double[] weights, int offset, int n){
+		if(n < 1)
+			throw new IllegalArgumentException("no actions to sample");
+		double total = 0;
+		for(int a = 1; a <= n; a++){
+			double w = weights[offset + a];
+			if(!(w >= 0) || Double.isInfinite(w))
+				throw new IllegalArgumentException("invalid weight " + w + " for action " + a);
+			total += w;
+		}
+		if(!(total > 0))
+			throw new IllegalArgumentException("weights sum to " + total);
+		this.n = n;
+		keep = new double[n];
+		alias = new int[n];
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int ns = 0;
+		int nl = 0;
+		for(int i = 0; i < n; i++){
+			scaled[i] = weights[offset + i + 1] * n / total;
+			if(scaled[i] < 1.0)
+				small[ns++] = i;
+			else
+				large[nl++] = i;
+		}
+		while(ns > 0 && nl > 0){
+			int s = small[--ns];
+			int l = large[--nl];
+			keep[s] = scaled[s];
+			alias[s] = l;
+			scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+			if(scaled[l] < 1.0)
+				small[ns++] = l;
+			else
+				large[nl++] = l;
+		}
+		//what is left is 1 up to rounding
+		while(nl > 0){
+			int l = large[--nl];
+			keep[l] = 1.0;
+			alias[l] = l;
+		}
+		while(ns > 0){
+			int s = small[--ns];
+			keep[s] = 1.0;
+			alias[s] = s;
+		}
+	}
+
+	/**
+	 * Draw an action from a given uniform number (e.g. u and 1 - u for antithetic draws)
+	 * @param u uniform in [0, 1)
+	 * @return the action, starting at 1
+	 */
+	public int sample(double u){
+		double x = u * n;
+		int column = (int)x;
+		if(column >= n)
+			column = n - 1;
+		return (x - column < keep[column] ? column : alias[column]) + 1;
+	}
+
+	/**
+	 * Draw an action
+	 * @param rng source of the uniform number
+	 * @return the action, starting at 1
+	 */
+	public int sample(Random rng){
+		return sample(rng.nextDouble());
+	}
+
+	/**
+	 * Draw an action
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @return the action, starting at 1
+	 */
+	public int sample(DoubleSupplier rng){
+		return sample(rng.getAsDouble());
+	}
+
+	/**
+	 * Draw many actions
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @param out receives the actions
+	 * @param from first index of out written
+	 * @param count number of actions drawn
+	 */
+	public void sample(DoubleSupplier rng, int[] out, int from, int count){
+		for(int i = from; i < from + count; i++){
+			double x = rng.getAsDouble() * n;
+			int column = (int)x;
+			if(column >= n)
+				column = n - 1;
+			out[i] = (x - column < keep[column] ? column : alias[column]) + 1;
+		}
+	}
+
+	/**
+	 * Draw many actions
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @param count number of actions drawn
+	 * @return the actions
+	 */
+	public int[] sample(DoubleSupplier rng, int count){
+		int[] out = new int[count];
+		sample(rng, out, 0, count);
+		return out;
+	}
+
+	/**
+	 * Number of actions
+	 * @return the number of actions
+	 */
+	public int getNumActions(){
+		return n;
+	}
+}
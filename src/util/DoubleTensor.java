@@ -0,0 +1,229 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Stores a matrix with arbitrary dimensions of primitive doubles.
+ * Same index translation and dimension API as {@link GenericTensor} (indices start at 1 and the
+ * first dimension is the most significant) without boxing every value.
+ */
+
+public class DoubleTensor {
+
+  private int numDimensions;
+  private int[] dimensionSize;
+  private int[] strides;
+  private int size;
+  private double[] values;
+
+  /**
+   * Create an empty tensor
+   */
+  public DoubleTensor() {
+    numDimensions = 0;
+    dimensionSize = null;
+    strides = null;
+    size = 0;
+    values = null;
+  }
+
+  /**
+   * Constructor
+   *
+   * @param dimSize an array holding the size of the tensor
+   * in each dimension.
+   */
+  public DoubleTensor(int[] dimSize) {
+    init(dimSize);
+  }
+
+  /**
+   * Copy constructor
+   * @param original the tensor to copy
+   */
+  public DoubleTensor(DoubleTensor original) {
+    init(original.dimensionSize);
+    System.arraycopy(original.values, 0, values, 0, size);
+  }
+
+  /**
+   * Initialize the data structure
+   * This will clear all existing data
+   * @param dimSize dimension size
+   */
+  public void init(int[] dimSize) {
+    numDimensions = dimSize.length;
+    dimensionSize = dimSize.clone();
+    strides = IndexCursor.computeStrides(dimensionSize);
+    size = 1;
+    for (int i = 0; i < numDimensions; i++) {
+      size *= dimensionSize[i];
+    }
+    values = new double[size];
+  }
+
+  /**
+   * Translate an array of indices in the tensor into
+   * an index of the underlying values array.  Assumes
+   * that each index in the array is between 1 and the size
+   * of that dimension.
+   * @param indices for translation
+   * @return translation
+   */
+  public int getIndex(int[] indices) {
+    int valueIndex = 0;
+    for (int i = 0; i < numDimensions; i++) {
+      valueIndex += (indices[i] - 1) * strides[i];
+    }
+    return valueIndex;
+  }
+
+  /**
+   * Set the value stored at the indexed spot in the tensor
+   * @param value the value
+   * @param indices indices
+   */
+  public void setValue(double value, int[] indices) {
+    values[getIndex(indices)] = value;
+  }
+
+  /**
+   * Set a value by directly specifying the index
+   * @param value the value
+   * @param index the index
+   */
+  public void setValue(double value, int index) {
+    values[index] = value;
+  }
+
+  /**
+   * Get the value stored at the indexed spot in the tensor
+   * @param indices the indices
+   * @return the value
+   */
+  public double getValue(int[] indices) {
+    return values[getIndex(indices)];
+  }
+
+  /**
+   * Access a tensor element by directly specifying the index
+   * @param index the index
+   * @return the value
+   */
+  public double getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Add to the value at an index
+   * @param index the index
+   * @param delta amount to add
+   */
+  public void add(int index, double delta) {
+    values[index] += delta;
+  }
+
+  /**
+   * Set every value
+   * @param value the value
+   */
+  public void fill(double value) {
+    Arrays.fill(values, value);
+  }
+
+  /**
+   * Multiply every value by a constant
+   * @param alpha the constant
+   */
+  public void scale(double alpha) {
+    for (int i = 0; i < size; i++) {
+      values[i] *= alpha;
+    }
+  }
+
+  /**
+   * this = this + alpha * x
+   * @param alpha the multiplier
+   * @param x a tensor of the same size
+   */
+  public void axpy(double alpha, DoubleTensor x) {
+    double[] xv = x.values;
+    for (int i = 0; i < size; i++) {
+      values[i] += alpha * xv[i];
+    }
+  }
+
+  /**
+   * Inner product with a tensor of the same size
+   * @param x the other tensor
+   * @return the sum of the element wise products
+   */
+  public double dot(DoubleTensor x) {
+    double[] xv = x.values;
+    double sum = 0d;
+    for (int i = 0; i < size; i++) {
+      sum += values[i] * xv[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Sum of the values, added in index order
+   * @return the sum
+   */
+  public double sum() {
+    double sum = 0d;
+    for (int i = 0; i < size; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Direct access to the values, indexed by {@link #getIndex(int[])}
+   * @return the backing array
+   */
+  public double[] getData() {
+    return values;
+  }
+
+  /**
+   * A cursor over every entry of this tensor
+   * @return the cursor
+   */
+  public IndexCursor cursor() {
+    return new IndexCursor(dimensionSize);
+  }
+
+/**
+ * tensor size
+ * @return size
+ */
+  public int size() {
+    return size;
+  }
+
+/**
+ * the number of dimensions
+ * @return the number of dimensions
+ */
+  public int getNumDimensions() {
+    return numDimensions;
+  }
+
+/**
+ * the size of dimensions
+ * @param dim dim index
+ * @return the size
+ */
+  public int getSizeOfDim(int dim) {
+    return dimensionSize[dim];
+  }
+/**
+ * get all of the dim sizes
+ * @return array of dims
+ */
+  public int[] getSizeOfDim()  {
+    return dimensionSize;
+  }
+}
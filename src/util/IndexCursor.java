@@ -0,0 +1,107 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Walks every entry of a tensor (or every outcome of a game) keeping both the indices and the
+ * flat index up to date. Entries are visited in the same order as games.OutcomeIterator (the
+ * first dimension changes fastest) while the flat index follows the tensor layout (the first
+ * dimension is the most significant), so each step only adds or removes a stride.
+ * A cursor can be reset and reused to avoid allocating a new one per loop.
+ */
+
+public final class IndexCursor {
+
+  private final int[] dimensionSize;
+  private final int[] strides;
+  private final int[] indices;
+  private int index;
+  private boolean first;
+
+  /**
+   * Create a cursor positioned before the first entry
+   * @param dimSize the size of each dimension
+   */
+  public IndexCursor(int[] dimSize) {
+    dimensionSize = dimSize.clone();
+    strides = computeStrides(dimensionSize);
+    indices = new int[dimensionSize.length];
+    reset();
+  }
+
+  /**
+   * The flat index step of each dimension, the last dimension has a stride of 1
+   * @param dimSize the size of each dimension
+   * @return the strides
+   */
+  public static int[] computeStrides(int[] dimSize) {
+    int[] s = new int[dimSize.length];
+    int stride = 1;
+    for (int i = dimSize.length - 1; i >= 0; i--) {
+      s[i] = stride;
+      stride *= dimSize[i];
+    }
+    return s;
+  }
+
+  /**
+   * Move back before the first entry
+   */
+  public void reset() {
+    Arrays.fill(indices, 1);
+    index = 0;
+    first = true;
+  }
+
+  /**
+   * Whether there is another entry
+   * @return true if next() will move to a new entry
+   */
+  public boolean hasNext() {
+    if (first) return true;
+    for (int i = 0; i < indices.length; i++) {
+      if (indices[i] < dimensionSize[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Move to the next entry
+   * @return the indices of the entry (starting at 1), reused between calls
+   */
+  public int[] next() {
+    if (first) {
+      first = false;
+      return indices;
+    }
+    for (int i = 0; i < indices.length; i++) {
+      if (indices[i] < dimensionSize[i]) {
+        indices[i]++;
+        index += strides[i];
+        break;
+      } else {
+        index -= (indices[i] - 1) * strides[i];
+        indices[i] = 1;
+      }
+    }
+    return indices;
+  }
+
+  /**
+   * The indices of the current entry (starting at 1)
+   * @return the indices, reused between calls
+   */
+  public int[] getIndices() {
+    return indices;
+  }
+
+  /**
+   * The flat index of the current entry in the tensor layout
+   * @return the index
+   */
+  public int getIndex() {
+    return index;
+  }
+}
@@ -0,0 +1,503 @@
+package util;
+
+import java.util.Arrays;
+
+import games.*;
+
+/**
+ * Anytime approximation of equilibria of two player matrix games by iterating simple dynamics on
+ * primitive arrays:
+ * <ul>
+ * <li>fictitious play: both players best respond to the opponent's empirical average, the payoffs
+ * against the averages are kept as running sums so an iteration costs O(m+n)</li>
+ * <li>regret matching+: alternating updates of clipped cumulative regrets, the linearly weighted
+ * average strategies are reported</li>
+ * <li>logit QRE homotopy: the logit equilibrium is followed from lambda 0 with a damped fixed point
+ * iteration at a growing lambda, warm started from the previous lambda</li>
+ * </ul>
+ * The current strategies, the exploitability bound (the most either player can gain by deviating)
+ * and the iteration count can be read at any time. A solve stops when the exploitability reaches the
+ * tolerance, after the maximum number of iterations, when the time limit passes or when the thread
+ * is interrupted, so a caller under a time limit always gets the best strategies found so far.
+ * A solver is not thread safe.
+ */
+public class IterativeSolver {
+
+	/**The dynamics to iterate*/
+	public enum Method {
+		FICTITIOUS_PLAY,
+		REGRET_MATCHING_PLUS,
+		LOGIT_QRE
+	}
+
+	/**Outcome of a solve*/
+	public enum Status {
+		/**the exploitability reached the tolerance (or the QRE reached the target lambda)*/
+		CONVERGED,
+		/**the maximum number of iterations was reached*/
+		ITERATION_LIMIT,
+		/**stopped by the time limit or an interrupt*/
+		TIME_LIMIT
+	}
+
+	/**Regret matching+ iterations between exploitability checks*/
+	private static final int CHECK_INTERVAL = 8;
+	/**Growth of lambda between homotopy steps*/
+	private static final double LAMBDA_GROWTH = 1.25;
+	/**Fixed point iterations per homotopy step*/
+	private static final int QRE_STEPS = 200;
+	/**Smallest damping of the fixed point iteration*/
+	private static final double MIN_DAMPING = 1.0 / 64;
+
+	private final Method method;
+	private double tolerance = 1e-6;
+	private int maxIterations = 10000;
+	private long timeLimit = 0;
+	private double targetLambda = Double.POSITIVE_INFINITY;
+	private long deadline;
+
+	private int m;
+	private int n;
+	private double[] data;
+	private int offB;
+	private double[] x;
+	private double[] y;
+	private double[] xSum;
+	private double[] ySum;
+	private double[] rowValues;
+	private double[] colValues;
+	private double[] regretX;
+	private double[] regretY;
+	private double[] avgX;
+	private double[] avgY;
+	private int iterations;
+	private double exploitability;
+	private double lambda;
+	private Status status;
+
+	/**
+	 * Create a solver
+	 * @param method the dynamics to iterate
+	 */
+	public IterativeSolver(Method method){
+		this.method = method;
+	}
+
+	/**
+	 * The dynamics of this solver
+	 * @return the method
+	 */
+	public Method getMethod(){
+		return method;
+	}
+
+	/**
+	 * Stop once neither player can gain more than this by deviating
+	 * @param tolerance the epsilon target
+	 */
+	public void setTolerance(double tolerance){
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Maximum number of iterations of a solve
+	 * @param maxIterations the limit
+	 */
+	public void setMaxIterations(int maxIterations){
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Time budget of every solve
+	 * @param millis the budget in milliseconds, 0 for none
+	 */
+	public void setTimeLimit(long millis){
+		timeLimit = millis * 1000000L;
+	}
+
+	/**
+	 * Lambda at which the QRE homotopy stops, infinite (the default) follows it towards a Nash equilibrium
+	 * @param lambda the target precision
+	 */
+	public void setTargetLambda(double lambda){
+		targetLambda = lambda;
+	}
+
+	/**
+	 * Run the dynamics on a game
+	 * @param mg two player game
+	 * @return the status
+	 */
+	public Status solve(MatrixGame mg){
+		deadline = timeLimit > 0 ? System.nanoTime() + timeLimit : Long.MAX_VALUE;
+		setup(mg);
+		switch(method){
+			case FICTITIOUS_PLAY:
+				status = fictitiousPlay();
+				break;
+			case REGRET_MATCHING_PLUS:
+				status = regretMatching();
+				break;
+			default:
+				status = logitHomotopy(mg);
+		}
+		return status;
+	}
+
+	/**
+	 * Current strategy of a player: the average strategy for fictitious play and regret matching+,
+	 * the logit response at the current lambda for the QRE homotopy
+	 * @param player 0 row or 1 column
+	 * @return a new strategy
+	 */
+	public MixedStrategy getStrategy(int player){
+		double[] p = player == 0 ? x : y;
+		double[] sum = player == 0 ? xSum : ySum;
+		int actions = player == 0 ? m : n;
+		MixedStrategy ms = new MixedStrategy(actions);
+		if(method == Method.LOGIT_QRE){
+			for(int i = 0; i < actions; i++)
+				ms.setProb(i + 1, p[i]);
+			return ms;
+		}
+		double total = 0.0;
+		for(int i = 0; i < actions; i++)
+			total += sum[i];
+		for(int i = 0; i < actions; i++)
+			ms.setProb(i + 1, total > 0 ? sum[i] / total : p[i]);
+		return ms;
+	}
+
+	/**
+	 * Most either player can gain by deviating from the current strategies at the last check
+	 * @return the exploitability bound
+	 */
+	public double getExploitability(){
+		return exploitability;
+	}
+
+	/**
+	 * Iterations of the last solve (fixed point steps for the QRE homotopy)
+	 * @return the number of iterations
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	/**
+	 * Lambda reached by the last QRE homotopy
+	 * @return the lambda, 0 for the other methods
+	 */
+	public double getLambda(){
+		return lambda;
+	}
+
+	/**
+	 * Status of the last solve
+	 * @return the status, null before the first solve
+	 */
+	public Status getStatus(){
+		return status;
+	}
+
+	private boolean outOfTime(){
+		return Thread.currentThread().isInterrupted() || (deadline != Long.MAX_VALUE && System.nanoTime() > deadline);
+	}
+
+	private void setup(MatrixGame mg){
+		int rows = mg.getNumActions(0);
+		int cols = mg.getNumActions(1);
+		if(x == null || rows != m || cols != n){
+			m = rows;
+			n = cols;
+			x = new double[m];
+			y = new double[n];
+			xSum = new double[m];
+			ySum = new double[n];
+			rowValues = new double[m];
+			colValues = new double[n];
+			regretX = new double[m];
+			regretY = new double[n];
+			avgX = new double[m];
+			avgY = new double[n];
+		}
+		data = mg.getSharedPayoffData();
+		offB = mg.getOffset(1);
+		Arrays.fill(x, 1.0 / m);
+		Arrays.fill(y, 1.0 / n);
+		Arrays.fill(xSum, 0.0);
+		Arrays.fill(ySum, 0.0);
+		Arrays.fill(regretX, 0.0);
+		Arrays.fill(regretY, 0.0);
+		iterations = 0;
+		lambda = 0.0;
+		exploitability = Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * rowValues = A q and colValues = p B
+	 */
+	private void computeValues(double[] p, double[] q){
+		Arrays.fill(colValues, 0.0);
+		for(int i = 0; i < m; i++){
+			int base = i * n;
+			double pi = p[i];
+			double v = 0.0;
+			for(int j = 0; j < n; j++){
+				v += data[base + j] * q[j];
+				colValues[j] += pi * data[offB + base + j];
+			}
+			rowValues[i] = v;
+		}
+	}
+
+	/**
+	 * rowValues = A q
+	 */
+	private void computeRowValues(double[] q){
+		for(int i = 0; i < m; i++){
+			int base = i * n;
+			double v = 0.0;
+			for(int j = 0; j < n; j++)
+				v += data[base + j] * q[j];
+			rowValues[i] = v;
+		}
+	}
+
+	/**
+	 * colValues = p B
+	 */
+	private void computeColumnValues(double[] p){
+		Arrays.fill(colValues, 0.0);
+		for(int i = 0; i < m; i++){
+			int base = offB + i * n;
+			double pi = p[i];
+			if(pi == 0.0)
+				continue;
+			for(int j = 0; j < n; j++)
+				colValues[j] += pi * data[base + j];
+		}
+	}
+
+	/**
+	 * Exploitability of p and q given rowValues = A q and colValues = p B
+	 */
+	private double gain(double[] p, double[] q){
+		double rowPay = 0.0;
+		double rowBest = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < m; i++){
+			rowPay += p[i] * rowValues[i];
+			rowBest = Math.max(rowBest, rowValues[i]);
+		}
+		double colPay = 0.0;
+		double colBest = Double.NEGATIVE_INFINITY;
+		for(int j = 0; j < n; j++){
+			colPay += q[j] * colValues[j];
+			colBest = Math.max(colBest, colValues[j]);
+		}
+		return Math.max(0.0, Math.max(rowBest - rowPay, colBest - colPay));
+	}
+
+	private static int argmax(double[] v){
+		int best = 0;
+		for(int i = 1; i < v.length; i++)
+			if(v[i] > v[best])
+				best = i;
+		return best;
+	}
+
+	/* ---------------- fictitious play ---------------- */
+
+	private Status fictitiousPlay(){
+		//start from uniform averages with weight 1, xSum and ySum hold the empirical counts
+		Arrays.fill(xSum, 1.0 / m);
+		Arrays.fill(ySum, 1.0 / n);
+		computeValues(x, y);
+		double t = 1.0;
+		while(true){
+			for(int i = 0; i < m; i++)
+				x[i] = xSum[i] / t;
+			for(int j = 0; j < n; j++)
+				y[j] = ySum[j] / t;
+			//rowValues and colValues are the running sums, divide by t for the averages
+			exploitability = gain(x, y) / t;
+			if(exploitability <= tolerance)
+				return Status.CONVERGED;
+			if(iterations >= maxIterations)
+				return Status.ITERATION_LIMIT;
+			if(outOfTime())
+				return Status.TIME_LIMIT;
+			int br = argmax(rowValues);
+			int bc = argmax(colValues);
+			xSum[br] += 1.0;
+			ySum[bc] += 1.0;
+			for(int i = 0; i < m; i++)
+				rowValues[i] += data[i * n + bc];
+			int base = offB + br * n;
+			for(int j = 0; j < n; j++)
+				colValues[j] += data[base + j];
+			t += 1.0;
+			iterations++;
+		}
+	}
+
+	/* ---------------- regret matching+ ---------------- */
+
+	private Status regretMatching(){
+		while(true){
+			if(iterations % CHECK_INTERVAL == 0 && iterations > 0){
+				if(checkAverage())
+					return Status.CONVERGED;
+			}
+			if(iterations >= maxIterations){
+				checkAverage();
+				return Status.ITERATION_LIMIT;
+			}
+			if(outOfTime()){
+				checkAverage();
+				return Status.TIME_LIMIT;
+			}
+			iterations++;
+			double w = iterations;
+			//row player against the current y
+			computeRowValues(y);
+			double v = 0.0;
+			for(int i = 0; i < m; i++)
+				v += x[i] * rowValues[i];
+			for(int i = 0; i < m; i++)
+				regretX[i] = Math.max(0.0, regretX[i] + rowValues[i] - v);
+			matchRegrets(regretX, x);
+			for(int i = 0; i < m; i++)
+				xSum[i] += w * x[i];
+			//column player against the updated x
+			computeColumnValues(x);
+			v = 0.0;
+			for(int j = 0; j < n; j++)
+				v += y[j] * colValues[j];
+			for(int j = 0; j < n; j++)
+				regretY[j] = Math.max(0.0, regretY[j] + colValues[j] - v);
+			matchRegrets(regretY, y);
+			for(int j = 0; j < n; j++)
+				ySum[j] += w * y[j];
+		}
+	}
+
+	/**
+	 * Strategy proportional to the positive regrets, uniform when there are none
+	 */
+	private static void matchRegrets(double[] regret, double[] p){
+		double sum = 0.0;
+		for(double r : regret)
+			sum += r;
+		if(sum > 0){
+			for(int i = 0; i < p.length; i++)
+				p[i] = regret[i] / sum;
+		}
+		else
+			Arrays.fill(p, 1.0 / p.length);
+	}
+
+	/**
+	 * Exploitability of the average strategies
+	 * @return true when it is within the tolerance
+	 */
+	private boolean checkAverage(){
+		averageInto(xSum, avgX);
+		averageInto(ySum, avgY);
+		computeValues(avgX, avgY);
+		exploitability = gain(avgX, avgY);
+		return exploitability <= tolerance;
+	}
+
+	private static void averageInto(double[] sum, double[] p){
+		double total = 0.0;
+		for(double s : sum)
+			total += s;
+		if(total > 0)
+			for(int i = 0; i < p.length; i++)
+				p[i] = sum[i] / total;
+	}
+
+	/* ---------------- logit QRE homotopy ---------------- */
+
+	/**
+	 * Lambda only grows from a converged logit equilibrium; when the fixed point iteration does not
+	 * settle the step is undone and retried with a smaller increase of lambda and stronger damping,
+	 * so x and y are always a logit equilibrium at the reported lambda
+	 */
+	private Status logitHomotopy(MatrixGame mg){
+		//start where lambda times the payoff range is small
+		PayoffStatistics stats = mg.getStatistics();
+		double range = Math.max(stats.getMax(0) - stats.getMin(0), stats.getMax(1) - stats.getMin(1));
+		double step = range > 0 ? 0.1 / range : 1.0;
+		double growth = LAMBDA_GROWTH;
+		double damping = 0.5;
+		computeValues(x, y);
+		exploitability = gain(x, y);
+		while(true){
+			if(lambda >= targetLambda || exploitability <= tolerance)
+				return Status.CONVERGED;
+			if(iterations >= maxIterations)
+				return Status.ITERATION_LIMIT;
+			if(outOfTime())
+				return Status.TIME_LIMIT;
+			double previous = lambda;
+			System.arraycopy(x, 0, avgX, 0, m);
+			System.arraycopy(y, 0, avgY, 0, n);
+			lambda = Math.min(targetLambda, lambda == 0.0 ? step : lambda * growth);
+			if(relax(damping)){
+				computeValues(x, y);
+				exploitability = gain(x, y);
+				growth = 1.0 + Math.min(LAMBDA_GROWTH - 1.0, 2.0 * (growth - 1.0));
+			}
+			else{
+				lambda = previous;
+				System.arraycopy(avgX, 0, x, 0, m);
+				System.arraycopy(avgY, 0, y, 0, n);
+				growth = 1.0 + (growth - 1.0) / 2.0;
+				damping = Math.max(MIN_DAMPING, damping / 2.0);
+			}
+		}
+	}
+
+	/**
+	 * Damped fixed point iteration towards the logit equilibrium at the current lambda
+	 * @return true when it converged
+	 */
+	private boolean relax(double damping){
+		int limit = (int)(QRE_STEPS / damping);
+		for(int k = 0; k < limit && iterations < maxIterations; k++){
+			iterations++;
+			//row player first, then the column player against the moved x
+			computeRowValues(y);
+			double residual = logitStep(rowValues, x, damping);
+			computeColumnValues(x);
+			residual = Math.max(residual, logitStep(colValues, y, damping));
+			if(residual < 1e-8)
+				return true;
+			if(outOfTime())
+				return false;
+		}
+		return false;
+	}
+
+	/**
+	 * Move p part of the way to the logit response to the values
+	 * @return the largest difference between p and the response before the move
+	 */
+	private double logitStep(double[] values, double[] p, double damping){
+		double max = Double.NEGATIVE_INFINITY;
+		for(double v : values)
+			max = Math.max(max, v);
+		double sum = 0.0;
+		for(int i = 0; i < values.length; i++)
+			sum += Math.exp(lambda * (values[i] - max));
+		double residual = 0.0;
+		for(int i = 0; i < p.length; i++){
+			double target = Math.exp(lambda * (values[i] - max)) / sum;
+			residual = Math.max(residual, Math.abs(target - p[i]));
+			p[i] += damping * (target - p[i]);
+		}
+		return residual;
+	}
+}
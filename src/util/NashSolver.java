@@ -0,0 +1,609 @@
+package util;
+
+import java.util.Arrays;
+
+import games.*;
+
+/**
+ * Mixed Nash equilibria of general sum two player matrix games.
+ * <p>
+ * Small games are solved by support enumeration (equal size supports, smallest first, so pure
+ * equilibria are found first). Larger games use the Lemke-Howson algorithm with a configurable
+ * missing label: two tableaux, one per best response polytope, whose columns are indexed by label
+ * so the complementary variable of a leaving label is found without a lookup. Ties in the ratio
+ * test are broken lexicographically so degenerate games cannot cycle.
+ * </p>
+ * <p>
+ * A solve can stop early when the current point is within the tolerance of an equilibrium and stops
+ * when the pivot limit or the time limit is reached or the thread is interrupted (as AgentExecutor
+ * does on a time out), returning the best point reached so far. The pivot limit makes the result
+ * depend only on the game, the time limit does not. Tableaux and work arrays are reused between games of
+ * the same size. A solver is not thread safe, give every agent (or worker) its own.
+ * </p>
+ */
+public class NashSolver {
+
+	/**Outcome of a solve*/
+	public enum Status {
+		/**an exact equilibrium (up to round off)*/
+		EQUILIBRIUM,
+		/**stopped early at a point within the tolerance of an equilibrium*/
+		APPROXIMATE,
+		/**stopped by the time limit or an interrupt, the strategies are the best point reached*/
+		TIME_LIMIT,
+		/**stopped by the pivot limit, the strategies are the best point reached*/
+		PIVOT_LIMIT,
+		/**no equilibrium was found, the strategies are uniform*/
+		FAILED
+	}
+
+	private static final double EPS = 1e-12;
+	/**largest number of actions per player for which solve() uses support enumeration*/
+	private int supportLimit = 6;
+	/**stop when no player can gain more than this by deviating, 0 to run to the end*/
+	private double tolerance = 0.0;
+	/**time budget of a solve in nanoseconds, 0 for none*/
+	private long timeLimit = 0;
+	private long deadline;
+	/**Lemke-Howson pivots allowed in a solve over every restart, 0 for no limit*/
+	private long pivotLimit = 0;
+
+	private int m;
+	private int n;
+	private double[] a;
+	private double[] b;
+	private double[][] tabP;
+	private double[][] tabQ;
+	private int[] basisP;
+	private int[] basisQ;
+	private boolean[] broken;
+	private boolean exhausted;
+	private double[] x;
+	private double[] y;
+	private double[] rowValues;
+	private double[] colValues;
+	private double[][] system;
+	private double[] solution;
+	private int pivots;
+	private double regret;
+	private Status status;
+
+	/**
+	 * Largest number of actions per player for which solve() uses support enumeration
+	 * @param maxActions the limit, 0 to always use Lemke-Howson
+	 */
+	public void setSupportEnumerationLimit(int maxActions){
+		supportLimit = maxActions;
+	}
+
+	/**
+	 * Stop as soon as no player can gain more than tolerance by deviating
+	 * @param tolerance the epsilon, 0 to only stop at an exact equilibrium
+	 */
+	public void setTolerance(double tolerance){
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Time budget of every solve
+	 * @param millis the budget in milliseconds, 0 for none
+	 */
+	public void setTimeLimit(long millis){
+		timeLimit = millis * 1000000L;
+	}
+
+	/**
+	 * Pivot budget of every solve, counted over all the Lemke-Howson restarts. Unlike the time limit
+	 * the point reached when it runs out only depends on the game.
+	 * @param pivots the budget, 0 for none
+	 */
+	public void setPivotLimit(long pivots){
+		pivotLimit = pivots;
+	}
+
+	/**
+	 * Find an equilibrium: support enumeration for small games, otherwise Lemke-Howson
+	 * restarted with more missing labels and a doubling pivot budget until a path ends
+	 * @param mg two player game
+	 * @return the status
+	 */
+	public Status solve(MatrixGame mg){
+		startClock();
+		setup(mg);
+		if(m <= supportLimit && n <= supportLimit){
+			if(enumerateSupports() != Status.FAILED)
+				return status;
+			if(status == Status.TIME_LIMIT)
+				return status;
+		}
+		//path lengths are heavy tailed, so restart over more labels with a doubling pivot budget
+		int labels = m + n;
+		Arrays.fill(broken, false);
+		long limit = labels;
+		for(int round = 0; limit <= maxPivots(); round++, limit *= 2){
+			boolean tried = false;
+			for(int label = 0; label < labels && label <= round; label++){
+				if(broken[label])
+					continue;
+				tried = true;
+				if(runLemkeHowson(label, limit) != Status.FAILED)
+					return status;
+				broken[label] = !exhausted;
+			}
+			if(!tried && round >= labels)
+				break;
+		}
+		return fail();
+	}
+
+	/**
+	 * Lemke-Howson from the artificial equilibrium dropping the given label
+	 * @param mg two player game
+	 * @param label the missing label, 0..m-1 a row action, m..m+n-1 a column action
+	 * @return the status
+	 */
+	public Status lemkeHowson(MatrixGame mg, int label){
+		startClock();
+		setup(mg);
+		if(runLemkeHowson(label, maxPivots()) == Status.FAILED)
+			return fail();
+		return status;
+	}
+
+	/**
+	 * Support enumeration over equal size supports
+	 * @param mg two player game
+	 * @return the status
+	 */
+	public Status supportEnumeration(MatrixGame mg){
+		startClock();
+		setup(mg);
+		if(enumerateSupports() == Status.FAILED && status != Status.TIME_LIMIT)
+			return fail();
+		return status;
+	}
+
+	/**
+	 * The equilibrium strategy of a player from the last solve
+	 * @param player 0 row or 1 column
+	 * @return a new strategy
+	 */
+	public MixedStrategy getStrategy(int player){
+		double[] p = player == 0 ? x : y;
+		int actions = player == 0 ? m : n;
+		MixedStrategy ms = new MixedStrategy(actions);
+		for(int i = 0; i < actions; i++)
+			ms.setProb(i + 1, p[i]);
+		return ms;
+	}
+
+	/**
+	 * Largest gain of either player from deviating from the last solution (0 at an equilibrium)
+	 * @return the regret
+	 */
+	public double getRegret(){
+		return regret;
+	}
+
+	/**
+	 * Lemke-Howson pivots of the last solve
+	 * @return the number of pivots
+	 */
+	public int getPivots(){
+		return pivots;
+	}
+
+	/**
+	 * Status of the last solve
+	 * @return the status, null before the first solve
+	 */
+	public Status getStatus(){
+		return status;
+	}
+
+	private void startClock(){
+		deadline = timeLimit > 0 ? System.nanoTime() + timeLimit : Long.MAX_VALUE;
+		pivots = 0;
+	}
+
+	private boolean outOfTime(){
+		return Thread.currentThread().isInterrupted() || (deadline != Long.MAX_VALUE && System.nanoTime() > deadline);
+	}
+
+	/**
+	 * Copy the payoffs (shifted to be positive) and size the work arrays
+	 */
+	private void setup(MatrixGame mg){
+		int rows = mg.getNumActions(0);
+		int cols = mg.getNumActions(1);
+		if(a == null || rows != m || cols != n){
+			m = rows;
+			n = cols;
+			a = new double[m * n];
+			b = new double[m * n];
+			tabP = new double[n][m + n + 1];
+			tabQ = new double[m][m + n + 1];
+			basisP = new int[n];
+			basisQ = new int[m];
+			broken = new boolean[m + n];
+			x = new double[m];
+			y = new double[n];
+			rowValues = new double[m];
+			colValues = new double[n];
+			int k = Math.min(m, n) + 1;
+			system = new double[k][k + 1];
+			solution = new double[k];
+		}
+		double[] data = mg.getSharedPayoffData();
+		double shiftA = 1.0 - mg.getStatistics().getMin(0);
+		double shiftB = 1.0 - mg.getStatistics().getMin(1);
+		int offB = mg.getOffset(1);
+		for(int i = 0; i < m * n; i++){
+			a[i] = data[i] + shiftA;
+			b[i] = data[offB + i] + shiftB;
+		}
+	}
+
+	private Status fail(){
+		Arrays.fill(x, 1.0 / m);
+		Arrays.fill(y, 1.0 / n);
+		regret = computeRegret();
+		status = Status.FAILED;
+		return status;
+	}
+
+	/**
+	 * Largest gain from a pure deviation for x and y, shifts do not change it
+	 */
+	private double computeRegret(){
+		Arrays.fill(colValues, 0.0);
+		double rowPay = 0.0;
+		double colPay = 0.0;
+		for(int i = 0; i < m; i++){
+			double v = 0.0;
+			int base = i * n;
+			for(int j = 0; j < n; j++){
+				v += a[base + j] * y[j];
+				colValues[j] += x[i] * b[base + j];
+			}
+			rowValues[i] = v;
+			rowPay += x[i] * v;
+		}
+		for(int j = 0; j < n; j++)
+			colPay += colValues[j] * y[j];
+		double best = 0.0;
+		for(int i = 0; i < m; i++)
+			best = Math.max(best, rowValues[i] - rowPay);
+		for(int j = 0; j < n; j++)
+			best = Math.max(best, colValues[j] - colPay);
+		return best;
+	}
+
+	/* ---------------- Lemke-Howson ---------------- */
+
+	private long maxPivots(){
+		return 100L * (m + n) * (m + n) + 1000;
+	}
+
+	/**
+	 * Follow the path of one missing label
+	 * @param limit pivots allowed, exhausted is set when they run out
+	 * @return FAILED when the path broke down or ran out of pivots (status is set for the other outcomes)
+	 */
+	private Status runLemkeHowson(int missing, long limit){
+		exhausted = false;
+		if(missing < 0 || missing >= m + n)
+			return Status.FAILED;
+		int rhs = m + n;
+		//P: rows are column actions, s_j + sum_i B'_ij x_i = 1
+		for(int j = 0; j < n; j++){
+			double[] row = tabP[j];
+			Arrays.fill(row, 0.0);
+			for(int i = 0; i < m; i++)
+				row[i] = b[i * n + j];
+			row[m + j] = 1.0;
+			row[rhs] = 1.0;
+			basisP[j] = m + j;
+		}
+		//Q: rows are row actions, r_i + sum_j A'_ij y_j = 1
+		for(int i = 0; i < m; i++){
+			double[] row = tabQ[i];
+			Arrays.fill(row, 0.0);
+			System.arraycopy(a, i * n, row, m, n);
+			row[i] = 1.0;
+			row[rhs] = 1.0;
+			basisQ[i] = i;
+		}
+		int entering = missing;
+		boolean inP = missing < m;//x_i lives in P, y_j in Q
+		long steps = 0;
+		while(true){
+			double[][] tab = inP ? tabP : tabQ;
+			int[] basis = inP ? basisP : basisQ;
+			int slackStart = inP ? m : 0;
+			int r = ratioTest(tab, entering, slackStart);
+			if(r < 0)
+				return Status.FAILED;
+			int leaving = basis[r];
+			pivot(tab, r, entering);
+			basis[r] = entering;
+			pivots++;
+			steps++;
+			if(leaving == missing){
+				extract();
+				regret = computeRegret();
+				if(regret > 1e-6 * (1.0 + maxPayoff()))
+					return Status.FAILED;
+				status = Status.EQUILIBRIUM;
+				return status;
+			}
+			if(tolerance > 0 && extract()){
+				regret = computeRegret();
+				if(regret <= tolerance){
+					status = Status.APPROXIMATE;
+					return status;
+				}
+			}
+			boolean outOfPivots = pivotLimit > 0 && pivots >= pivotLimit;
+			if(outOfPivots || outOfTime()){
+				if(!extract()){
+					Arrays.fill(x, 1.0 / m);
+					Arrays.fill(y, 1.0 / n);
+				}
+				regret = computeRegret();
+				status = outOfPivots ? Status.PIVOT_LIMIT : Status.TIME_LIMIT;
+				return status;
+			}
+			if(steps >= limit){
+				exhausted = true;
+				return Status.FAILED;
+			}
+			//the variable with the same label enters the other tableau
+			entering = leaving;
+			inP = !inP;
+		}
+	}
+
+	private double maxPayoff(){
+		double max = 0.0;
+		for(int i = 0; i < m * n; i++)
+			max = Math.max(max, Math.max(a[i], b[i]));
+		return max;
+	}
+
+	/**
+	 * Lexicographic minimum ratio test: rhs first, then the columns of the initial (slack) basis
+	 * @return the pivot row or -1 if the column has no positive entry
+	 */
+	private int ratioTest(double[][] tab, int col, int slackStart){
+		int rhs = m + n;
+		int rows = tab.length;
+		int best = -1;
+		for(int r = 0; r < rows; r++){
+			double piv = tab[r][col];
+			if(piv <= EPS)
+				continue;
+			if(best < 0){
+				best = r;
+				continue;
+			}
+			double bestPiv = tab[best][col];
+			int cmp = compareRatio(tab[r][rhs] / piv, tab[best][rhs] / bestPiv);
+			for(int k = 0; cmp == 0 && k < rows; k++)
+				cmp = compareRatio(tab[r][slackStart + k] / piv, tab[best][slackStart + k] / bestPiv);
+			if(cmp < 0)
+				best = r;
+		}
+		return best;
+	}
+
+	private static int compareRatio(double u, double v){
+		double tol = 1e-12 * (1.0 + Math.abs(u) + Math.abs(v));
+		if(u < v - tol)
+			return -1;
+		if(u > v + tol)
+			return 1;
+		return 0;
+	}
+
+	private static void pivot(double[][] tab, int r, int col){
+		double[] pr = tab[r];
+		double piv = pr[col];
+		int width = pr.length;
+		for(int k = 0; k < width; k++)
+			pr[k] /= piv;
+		pr[col] = 1.0;
+		for(int i = 0; i < tab.length; i++){
+			if(i == r)
+				continue;
+			double[] row = tab[i];
+			double f = row[col];
+			if(f == 0.0)
+				continue;
+			for(int k = 0; k < width; k++)
+				row[k] -= f * pr[k];
+			row[col] = 0.0;
+		}
+	}
+
+	/**
+	 * Read the normalized strategies from the tableaux
+	 * @return false when a strategy is still all zero (the artificial start)
+	 */
+	private boolean extract(){
+		int rhs = m + n;
+		Arrays.fill(x, 0.0);
+		Arrays.fill(y, 0.0);
+		for(int r = 0; r < n; r++)
+			if(basisP[r] < m)
+				x[basisP[r]] = Math.max(0.0, tabP[r][rhs]);
+		for(int r = 0; r < m; r++)
+			if(basisQ[r] >= m)
+				y[basisQ[r] - m] = Math.max(0.0, tabQ[r][rhs]);
+		return normalize(x) && normalize(y);
+	}
+
+	private static boolean normalize(double[] p){
+		double sum = 0.0;
+		for(double v : p)
+			sum += v;
+		if(!(sum > 0))
+			return false;
+		for(int i = 0; i < p.length; i++)
+			p[i] /= sum;
+		return true;
+	}
+
+	/* ---------------- support enumeration ---------------- */
+
+	/**
+	 * @return FAILED if no equilibrium was found (status is TIME_LIMIT if time ran out)
+	 */
+	private Status enumerateSupports(){
+		status = Status.FAILED;
+		double tol = 1e-9 * (1.0 + maxPayoff());
+		int kMax = Math.min(m, n);
+		int[] rows = new int[kMax];
+		int[] cols = new int[kMax];
+		for(int k = 1; k <= kMax; k++){
+			first(rows, k);
+			do{
+				first(cols, k);
+				do{
+					if(outOfTime()){
+						status = Status.TIME_LIMIT;
+						Arrays.fill(x, 1.0 / m);
+						Arrays.fill(y, 1.0 / n);
+						regret = computeRegret();
+						return Status.FAILED;
+					}
+					if(checkSupports(rows, cols, k, tol)){
+						regret = computeRegret();
+						status = Status.EQUILIBRIUM;
+						return status;
+					}
+				}while(nextCombination(cols, k, n));
+			}while(nextCombination(rows, k, m));
+		}
+		return Status.FAILED;
+	}
+
+	private static void first(int[] c, int k){
+		for(int i = 0; i < k; i++)
+			c[i] = i;
+	}
+
+	/**
+	 * Advance to the next k subset of 0..size-1 in lexicographic order
+	 * @return false after the last subset
+	 */
+	private static boolean nextCombination(int[] c, int k, int size){
+		int i = k - 1;
+		while(i >= 0 && c[i] == size - k + i)
+			i--;
+		if(i < 0)
+			return false;
+		c[i]++;
+		for(int j = i + 1; j < k; j++)
+			c[j] = c[j - 1] + 1;
+		return true;
+	}
+
+	/**
+	 * Solve the indifference conditions on the supports and check that nothing outside does better
+	 */
+	private boolean checkSupports(int[] rows, int[] cols, int k, double tol){
+		//y on cols makes the row player indifferent over rows
+		for(int e = 0; e < k; e++){
+			double[] eq = system[e];
+			int base = rows[e] * n;
+			for(int t = 0; t < k; t++)
+				eq[t] = a[base + cols[t]];
+			eq[k] = -1.0;
+			eq[k + 1] = 0.0;
+		}
+		if(!solveSystem(k, tol))
+			return false;
+		Arrays.fill(y, 0.0);
+		for(int t = 0; t < k; t++)
+			y[cols[t]] = solution[t];
+		double v = solution[k];
+		//x on rows makes the column player indifferent over cols
+		for(int e = 0; e < k; e++){
+			double[] eq = system[e];
+			int col = cols[e];
+			for(int t = 0; t < k; t++)
+				eq[t] = b[rows[t] * n + col];
+			eq[k] = -1.0;
+			eq[k + 1] = 0.0;
+		}
+		if(!solveSystem(k, tol))
+			return false;
+		Arrays.fill(x, 0.0);
+		for(int t = 0; t < k; t++)
+			x[rows[t]] = solution[t];
+		double u = solution[k];
+		//no profitable deviation outside the supports
+		for(int i = 0; i < m; i++){
+			double sum = 0.0;
+			int base = i * n;
+			for(int j = 0; j < n; j++)
+				sum += a[base + j] * y[j];
+			if(sum > v + tol)
+				return false;
+		}
+		for(int j = 0; j < n; j++){
+			double sum = 0.0;
+			for(int i = 0; i < m; i++)
+				sum += x[i] * b[i * n + j];
+			if(sum > u + tol)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Solve the k indifference equations already in system plus sum of probabilities = 1
+	 * for k probabilities and the value, requiring non negative probabilities
+	 */
+	private boolean solveSystem(int k, double tol){
+		int size = k + 1;
+		double[] last = system[k];
+		for(int t = 0; t < k; t++)
+			last[t] = 1.0;
+		last[k] = 0.0;
+		last[k + 1] = 1.0;
+		for(int col = 0; col < size; col++){
+			int p = col;
+			for(int r = col + 1; r < size; r++)
+				if(Math.abs(system[r][col]) > Math.abs(system[p][col]))
+					p = r;
+			if(Math.abs(system[p][col]) < 1e-12)
+				return false;
+			double[] t = system[p];
+			system[p] = system[col];
+			system[col] = t;
+			double[] pr = system[col];
+			for(int r = col + 1; r < size; r++){
+				double f = system[r][col] / pr[col];
+				if(f == 0.0)
+					continue;
+				for(int c = col; c <= size; c++)
+					system[r][c] -= f * pr[c];
+			}
+		}
+		for(int r = size - 1; r >= 0; r--){
+			double sum = system[r][size];
+			for(int c = r + 1; c < size; c++)
+				sum -= system[r][c] * solution[c];
+			solution[r] = sum / system[r][r];
+		}
+		for(int t = 0; t < k; t++){
+			if(solution[t] < -1e-9)
+				return false;
+			if(solution[t] < 0)
+				solution[t] = 0.0;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,334 @@
+package util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import games.*;
+
+/**
+ * Estimates the payoffs of a match by actually playing it: every draw samples one pure action per
+ * player from alias tables built once per strategy, and the payoffs of the drawn outcome are read
+ * straight from the payoff array. A draw costs O(players) whatever the number of outcomes, so
+ * matches with many players or actions can be estimated where the exact joint expectation is too
+ * expensive, and the spread of the realized payoffs measures the risk of actually playing.
+ * <p>
+ * Three estimators of the expected payoff are available:
+ * <ul>
+ * <li>PLAIN: the mean of the draws</li>
+ * <li>ANTITHETIC: draws come in pairs using the uniform numbers u and 1 - u, the mean of the pair
+ * averages</li>
+ * <li>CONTROL_VARIATE: two player games only (the others use PLAIN). The control of a draw is the
+ * exact payoff of the drawn row action against the column strategy, whose mean is the exact expected
+ * payoff, and the mean of the draws is corrected by the estimated regression on the control.</li>
+ * </ul>
+ * A sampler is not thread safe, use one per thread.
+ */
+public class PayoffSampler {
+
+	/**How the expected payoff is estimated from the draws*/
+	public enum Estimator {
+		PLAIN,
+		ANTITHETIC,
+		CONTROL_VARIATE
+	}
+
+	/**Normal quantile of the 95% confidence interval*/
+	private static final double Z95 = 1.959963984540054;
+
+	private final Random rng;
+	private Estimator estimator = Estimator.PLAIN;
+
+	/**
+	 * Create a sampler
+	 * @param rng source of the draws
+	 */
+	public PayoffSampler(Random rng){
+		this.rng = rng;
+	}
+
+	/**
+	 * Standard setter
+	 * @param estimator how the expected payoff is estimated, PLAIN by default
+	 */
+	public void setEstimator(Estimator estimator){
+		this.estimator = estimator;
+	}
+
+	/**
+	 * Standard accessor
+	 * @return how the expected payoff is estimated
+	 */
+	public Estimator getEstimator(){
+		return estimator;
+	}
+
+	/**
+	 * Play a two player match
+	 * @param s1 row player strategy
+	 * @param s2 column player strategy
+	 * @param mg the game
+	 * @param draws number of outcomes drawn
+	 * @return the estimate
+	 */
+	public Estimate sample(MixedStrategy s1, MixedStrategy s2, MatrixGame mg, int draws){
+		return sample(new MixedStrategy[]{s1, s2}, mg, draws);
+	}
+
+	/**
+	 * Play a match
+	 * @param strategies one strategy per player
+	 * @param mg the game
+	 * @param draws number of outcomes drawn, at least 2 (rounded down to even for ANTITHETIC)
+	 * @return the estimate
+	 * @throws IllegalArgumentException if a strategy has a negative weight or no positive weight
+	 */
+	public Estimate sample(MixedStrategy[] strategies, MatrixGame mg, int draws){
+		int nPlayers = mg.getNumPlayers();
+		if(strategies.length != nPlayers)
+			throw new IllegalArgumentException(strategies.length + " strategies for " + nPlayers + " players");
+		if(draws < 2)
+			throw new IllegalArgumentException("at least 2 draws are needed: " + draws);
+		AliasSampler[] samplers = new AliasSampler[nPlayers];
+		int[] strides = new int[nPlayers];
+		for(int pl = 0; pl < nPlayers; pl++){
+			samplers[pl] = new AliasSampler(strategies[pl]);
+			strides[pl] = mg.getStride(pl);
+		}
+		if(estimator == Estimator.ANTITHETIC)
+			draws -= draws % 2;
+		Estimate e = new Estimate(nPlayers, draws);
+		if(estimator == Estimator.CONTROL_VARIATE && nPlayers == 2)
+			controlVariate(strategies, mg, samplers, draws, e);
+		else if(estimator == Estimator.ANTITHETIC)
+			antithetic(mg, samplers, strides, draws, e);
+		else
+			plain(mg, samplers, strides, draws, e);
+		return e;
+	}
+
+	private void plain(MatrixGame mg, AliasSampler[] samplers, int[] strides, int draws, Estimate e){
+		int nPlayers = samplers.length;
+		double[] data = mg.getSharedPayoffData();
+		int nProfiles = mg.getOffset(1);
+		double[] mean = new double[nPlayers];
+		double[] m2 = new double[nPlayers];
+		for(int d = 1; d <= draws; d++){
+			int index = 0;
+			for(int pl = 0; pl < nPlayers; pl++)
+				index += (samplers[pl].sample(rng.nextDouble()) - 1) * strides[pl];
+			for(int pl = 0; pl < nPlayers; pl++){
+				double v = data[pl * nProfiles + index];
+				e.realized(pl, v);
+				double delta = v - mean[pl];
+				mean[pl] += delta / d;
+				m2[pl] += delta * (v - mean[pl]);
+			}
+		}
+		for(int pl = 0; pl < nPlayers; pl++){
+			e.mean[pl] = mean[pl];
+			e.standardError[pl] = Math.sqrt(m2[pl] / (draws - 1) / draws);
+		}
+	}
+
+	private void antithetic(MatrixGame mg, AliasSampler[] samplers, int[] strides, int draws, Estimate e){
+		int nPlayers = samplers.length;
+		double[] data = mg.getSharedPayoffData();
+		int nProfiles = mg.getOffset(1);
+		int pairs = draws / 2;
+		double[] mean = new double[nPlayers];
+		double[] m2 = new double[nPlayers];
+		for(int d = 1; d <= pairs; d++){
+			int index = 0;
+			int mirror = 0;
+			for(int pl = 0; pl < nPlayers; pl++){
+				double u = rng.nextDouble();
+				index += (samplers[pl].sample(u) - 1) * strides[pl];
+				mirror += (samplers[pl].sample(1.0 - u) - 1) * strides[pl];
+			}
+			for(int pl = 0; pl < nPlayers; pl++){
+				double v = data[pl * nProfiles + index];
+				double w = data[pl * nProfiles + mirror];
+				e.realized(pl, v);
+				e.realized(pl, w);
+				double pair = 0.5 * (v + w);
+				double delta = pair - mean[pl];
+				mean[pl] += delta / d;
+				m2[pl] += delta * (pair - mean[pl]);
+			}
+		}
+		for(int pl = 0; pl < nPlayers; pl++){
+			e.mean[pl] = mean[pl];
+			e.standardError[pl] = pairs > 1 ? Math.sqrt(m2[pl] / (pairs - 1) / pairs) : Double.NaN;//pairs are the independent samples
+		}
+	}
+
+	private void controlVariate(MixedStrategy[] strategies, MatrixGame mg, AliasSampler[] samplers, int draws, Estimate e){
+		double[] data = mg.getSharedPayoffData();
+		int nProfiles = mg.getOffset(1);
+		int stride = mg.getStride(0);
+		int rows = mg.getNumActions(0);
+		MixedStrategy y = strategies[1];
+		//controls: payoff of each row action against the column strategy, their mean is the exact payoff
+		double[][] controls = new double[2][];
+		double[] exact = SolverUtils.expectedPayoffs(strategies[0], y, mg, new double[2]);
+		for(int pl = 0; pl < 2; pl++)
+			controls[pl] = SolverUtils.computeActionValues(mg, 0, y.getData(), y.getOffset(), pl, new double[rows + 1]);
+		double[] meanY = new double[2];
+		double[] meanC = new double[2];
+		double[] varY = new double[2];
+		double[] varC = new double[2];
+		double[] cov = new double[2];
+		for(int d = 1; d <= draws; d++){
+			int row = samplers[0].sample(rng.nextDouble());
+			int index = (row - 1) * stride + samplers[1].sample(rng.nextDouble()) - 1;
+			for(int pl = 0; pl < 2; pl++){
+				double v = data[pl * nProfiles + index];
+				double c = controls[pl][row];
+				e.realized(pl, v);
+				double dy = v - meanY[pl];
+				double dc = c - meanC[pl];
+				meanY[pl] += dy / d;
+				meanC[pl] += dc / d;
+				varY[pl] += dy * (v - meanY[pl]);
+				varC[pl] += dc * (c - meanC[pl]);
+				cov[pl] += dy * (c - meanC[pl]);
+			}
+		}
+		for(int pl = 0; pl < 2; pl++){
+			double beta = varC[pl] > 0 ? cov[pl] / varC[pl] : 0.0;
+			e.mean[pl] = meanY[pl] - beta * (meanC[pl] - exact[pl]);
+			double residual = Math.max(0.0, varY[pl] - beta * cov[pl]);
+			e.standardError[pl] = draws > 2 ? Math.sqrt(residual / (draws - 2) / draws) : Double.NaN;
+			e.exact[pl] = exact[pl];
+		}
+	}
+
+	/**
+	 * Result of a sampled match: the estimate of each player's expected payoff with its standard
+	 * error, and the spread of the payoffs actually drawn
+	 */
+	public static class Estimate {
+		private final int draws;
+		private final double[] mean;
+		private final double[] standardError;
+		private final double[] exact;
+		private final double[] min;
+		private final double[] max;
+		private final double[] realizedMean;
+		private final double[] realizedM2;
+		private final long[] count;
+
+		Estimate(int nPlayers, int draws){
+			this.draws = draws;
+			mean = new double[nPlayers];
+			standardError = new double[nPlayers];
+			exact = new double[nPlayers];
+			Arrays.fill(exact, Double.NaN);
+			min = new double[nPlayers];
+			max = new double[nPlayers];
+			Arrays.fill(min, Double.POSITIVE_INFINITY);
+			Arrays.fill(max, Double.NEGATIVE_INFINITY);
+			realizedMean = new double[nPlayers];
+			realizedM2 = new double[nPlayers];
+			count = new long[nPlayers];
+		}
+
+		private void realized(int pl, double v){
+			if(v < min[pl]) min[pl] = v;
+			if(v > max[pl]) max[pl] = v;
+			long n = ++count[pl];
+			double delta = v - realizedMean[pl];
+			realizedMean[pl] += delta / n;
+			realizedM2[pl] += delta * (v - realizedMean[pl]);
+		}
+
+		/**
+		 * Estimated expected payoff
+		 * @param player the player
+		 * @return the estimate
+		 */
+		public double getMean(int player){
+			return mean[player];
+		}
+
+		/**
+		 * Estimated expected payoffs of every player
+		 * @return a new array of the estimates
+		 */
+		public double[] getMeans(){
+			return mean.clone();
+		}
+
+		/**
+		 * Standard error of the estimated expected payoff
+		 * @param player the player
+		 * @return the standard error
+		 */
+		public double getStandardError(int player){
+			return standardError[player];
+		}
+
+		/**
+		 * Half width of the 95% confidence interval of the expected payoff
+		 * @param player the player
+		 * @return the half width, the interval is getMean +- this
+		 */
+		public double getConfidenceInterval(int player){
+			return Z95 * standardError[player];
+		}
+
+		/**
+		 * Exact expected payoff, known with the control variate estimator
+		 * @param player the player
+		 * @return the exact payoff or NaN
+		 */
+		public double getExact(int player){
+			return exact[player];
+		}
+
+		/**
+		 * Variance of the payoff of a single play
+		 * @param player the player
+		 * @return the sample variance of the drawn payoffs
+		 */
+		public double getRealizedVariance(int player){
+			return count[player] > 1 ? realizedM2[player] / (count[player] - 1) : 0.0;
+		}
+
+		/**
+		 * Lowest payoff drawn
+		 * @param player the player
+		 * @return the minimum
+		 */
+		public double getMin(int player){
+			return min[player];
+		}
+
+		/**
+		 * Highest payoff drawn
+		 * @param player the player
+		 * @return the maximum
+		 */
+		public double getMax(int player){
+			return max[player];
+		}
+
+		/**
+		 * Number of outcomes drawn
+		 * @return the draws
+		 */
+		public int getDraws(){
+			return draws;
+		}
+
+		public String toString(){
+			StringBuilder sb = new StringBuilder();
+			for(int pl = 0; pl < mean.length; pl++){
+				if(pl > 0)
+					sb.append(" ");
+				sb.append("[").append(mean[pl]).append(" +- ").append(getConfidenceInterval(pl)).append("]");
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package util;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import games.MixedStrategy;
+
+/**
+ * Draws outcomes (one action per player) in constant time per player.
+ * A product of independent strategies keeps one AliasSampler per player, so building it costs
+ * O(sum of actions) and a draw costs O(players). A joint distribution over every outcome (e.g. a
+ * correlated OutcomeDistribution) keeps a single alias table over the outcomes, built in O(outcomes),
+ * and a draw costs O(1) plus decoding the outcome.
+ * <p>
+ * Outcomes are numbered as in DoubleTensor and MatrixGame (actions from 1, flat index with the last
+ * player moving fastest), so a drawn flat index reads payoffs directly from
+ * MatrixGame.getSharedPayoffData. A sampler is immutable and can be shared by threads.
+ * </p>
+ */
+public class ProfileSampler {
+
+	private final int[] nActions;
+	private final int[] strides;
+	/**one per player in product form, otherwise null*/
+	private final AliasSampler[] players;
+	/**over the flat outcome index (action 1 is index 0) in joint form, otherwise null*/
+	private final AliasSampler joint;
+
+	/**
+	 * Sampler for independent strategies
+	 * @param strategies one strategy per player
+	 */
+	public ProfileSampler(MixedStrategy... strategies){
+		nActions = new int[strategies.length];
+		players = new AliasSampler[strategies.length];
+		for(int pl = 0; pl < strategies.length; pl++){
+			nActions[pl] = strategies[pl].getNumActions();
+			players[pl] = new AliasSampler(strategies[pl]);
+		}
+		strides = IndexCursor.computeStrides(nActions);
+		joint = null;
+	}
+
+	/**
+	 * Sampler for independent strategies
+	 * @param strategies one strategy per player
+	 */
+	public ProfileSampler(List<MixedStrategy> strategies){
+		this(strategies.toArray(new MixedStrategy[strategies.size()]));
+	}
+
+	/**
+	 * Sampler for independent players given by their probabilities
+	 * @param factors probabilities of each player, the probability of action a is factors[pl][a]
+	 */
+	public ProfileSampler(double[][] factors){
+		nActions = new int[factors.length];
+		players = new AliasSampler[factors.length];
+		for(int pl = 0; pl < factors.length; pl++){
+			nActions[pl] = factors[pl].length - 1;
+			players[pl] = new AliasSampler(factors[pl], 0, nActions[pl]);
+		}
+		strides = IndexCursor.computeStrides(nActions);
+		joint = null;
+	}
+
+	/**
+	 * Sampler for a joint distribution over outcomes
+	 * @param nActions number of actions of each player
+	 * @param probs probability of every outcome by flat index
+	 */
+	public ProfileSampler(int[] nActions, double[] probs){
+		this.nActions = nActions.clone();
+		strides = IndexCursor.computeStrides(this.nActions);
+		players = null;
+		joint = new AliasSampler(probs, -1, probs.length);
+	}
+
+	/**
+	 * Draw the flat index of an outcome
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @return the index, as in MatrixGame.getOutcomeIndex
+	 */
+	public int sampleIndex(DoubleSupplier rng){
+		if(joint != null)
+			return joint.sample(rng.getAsDouble()) - 1;
+		int index = 0;
+		for(int pl = 0; pl < players.length; pl++)
+			index += (players[pl].sample(rng.getAsDouble()) - 1) * strides[pl];
+		return index;
+	}
+
+	/**
+	 * Draw an outcome
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @param outcome receives the action of each player, starting at 1
+	 */
+	public void sample(DoubleSupplier rng, int[] outcome){
+		if(joint != null){
+			decode(joint.sample(rng.getAsDouble()) - 1, outcome, 0);
+			return;
+		}
+		for(int pl = 0; pl < players.length; pl++)
+			outcome[pl] = players[pl].sample(rng.getAsDouble());
+	}
+
+	/**
+	 * Draw an outcome
+	 * @param rng source of the uniform numbers
+	 * @return the action of each player, starting at 1
+	 */
+	public int[] sample(Random rng){
+		int[] outcome = new int[nActions.length];
+		sample(rng::nextDouble, outcome);
+		return outcome;
+	}
+
+	/**
+	 * Draw many outcome indices
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @param out receives the flat indices
+	 * @param from first index of out written
+	 * @param count number of outcomes drawn
+	 */
+	public void sampleIndices(DoubleSupplier rng, int[] out, int from, int count){
+		for(int i = from; i < from + count; i++)
+			out[i] = sampleIndex(rng);
+	}
+
+	/**
+	 * Draw many outcomes
+	 * @param rng source of uniform numbers in [0, 1)
+	 * @param out receives the outcomes one after the other, players actions from 1
+	 * @param count number of outcomes drawn, out must hold count * getNumPlayers() values
+	 */
+	public void sample(DoubleSupplier rng, int[] out, int count){
+		int nPlayers = nActions.length;
+		for(int i = 0; i < count; i++){
+			if(joint != null)
+				decode(joint.sample(rng.getAsDouble()) - 1, out, i * nPlayers);
+			else
+				for(int pl = 0; pl < nPlayers; pl++)
+					out[i * nPlayers + pl] = players[pl].sample(rng.getAsDouble());
+		}
+	}
+
+	private void decode(int index, int[] outcome, int from){
+		for(int pl = 0; pl < nActions.length; pl++){
+			outcome[from + pl] = index / strides[pl] + 1;
+			index %= strides[pl];
+		}
+	}
+
+	/**
+	 * Number of players
+	 * @return the number of players
+	 */
+	public int getNumPlayers(){
+		return nActions.length;
+	}
+
+	/**
+	 * Whether the players are drawn independently
+	 * @return true for a product of strategies
+	 */
+	public boolean isProduct(){
+		return players != null;
+	}
+}
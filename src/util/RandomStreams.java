@@ -0,0 +1,99 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random streams for parallel runs. Every stream is a SplitRandom of its own, derived from a master
+ * seed and a list of keys (e.g. the game, the pair of agents and the seat of a match), so a task
+ * draws the same numbers whichever thread runs it and however many threads there are, and no two
+ * threads ever share a generator or a lock.
+ * <p>
+ * current() is the stream of the calling thread for code that has no natural key, it is seeded from
+ * the master seed and the order in which threads first ask for it. Reproducible code should derive
+ * its streams with forKeys or reseed the current stream with seedCurrent at the start of a task.
+ * </p>
+ * The master seed is different on every run unless setSeed is called.
+ */
+public final class RandomStreams {
+
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+	/**key of the streams of current()*/
+	private static final long THREAD_STREAMS = 0x7468726561647321L;
+
+	private static volatile long masterSeed = SplitRandom.mix(System.nanoTime()) ^ System.currentTimeMillis();
+	private static final AtomicLong threads = new AtomicLong();
+	private static final ThreadLocal<SplitRandom> current = ThreadLocal.withInitial(() -> forKeys(THREAD_STREAMS, threads.getAndIncrement()));
+	private static final ThreadLocal<RandomNumberGenerator> generator = ThreadLocal.withInitial(() -> new RandomNumberGenerator(current().nextLong()));
+
+	private RandomStreams(){
+	}
+
+	/**
+	 * Set the master seed, streams derived afterwards depend on it. Threads that already use
+	 * current() keep their stream until seedCurrent is called.
+	 * @param seed the master seed
+	 */
+	public static void setSeed(long seed){
+		masterSeed = seed;
+		threads.set(0);
+	}
+
+	/**
+	 * Standard accessor
+	 * @return the master seed
+	 */
+	public static long getSeed(){
+		return masterSeed;
+	}
+
+	/**
+	 * Stream derived from the master seed and some keys
+	 * @param keys identify the stream, e.g. game, agent and seat
+	 * @return a new generator, the same keys give the same numbers under the same master seed
+	 */
+	public static SplitRandom forKeys(long... keys){
+		return derive(masterSeed, keys);
+	}
+
+	/**
+	 * Stream derived from a given seed and some keys, independent of the master seed
+	 * @param seed the seed
+	 * @param keys identify the stream
+	 * @return a new generator
+	 */
+	public static SplitRandom derive(long seed, long... keys){
+		return new SplitRandom(hash(seed, keys));
+	}
+
+	private static long hash(long seed, long[] keys){
+		long h = SplitRandom.mix(seed);
+		for(long key : keys)
+			h = SplitRandom.mix(h + GOLDEN + SplitRandom.mix(key));
+		return h;
+	}
+
+	/**
+	 * Stream of the calling thread
+	 * @return the thread's generator, only use it on this thread
+	 */
+	public static SplitRandom current(){
+		return current.get();
+	}
+
+	/**
+	 * Reseed the stream of the calling thread, e.g. at the start of a task on a pooled thread
+	 * @param keys identify the task, as in forKeys
+	 */
+	public static void seedCurrent(long... keys){
+		current.get().setSeed(hash(masterSeed, keys));
+	}
+
+	/**
+	 * RandomNumberGenerator of the calling thread, for the distributions Random lacks (gamma, beta,
+	 * poisson...). Its methods are synchronized but the lock is never contended.
+	 * @return the thread's generator, seeded from current()
+	 */
+	public static RandomNumberGenerator generator(){
+		return generator.get();
+	}
+}
@@ -0,0 +1,383 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Dense revised simplex method for linear programs of the form
+ * <pre>
+ *   maximize c x  subject to  A x &lt;= b,  x &gt;= 0
+ * </pre>
+ * with b &gt;= 0, so the all slack basis is always a feasible start. The inverse of the basis
+ * is kept as a dense matrix, updated with every pivot and refactored every
+ * {@value #REFACTOR} iterations to limit round off. A solve can be warm started from the
+ * basis of a previous solve of a similar problem (for example an obfuscated copy of the same game);
+ * if that basis is singular or infeasible for the new problem the solver starts from the slacks.
+ * <p>
+ * Variables 0..n-1 are the columns of A, variables n..n+m-1 the slacks of the rows.
+ * </p>
+ */
+public class SimplexSolver {
+
+	/**Outcome of a solve*/
+	public enum Status {
+		/**an optimal basis was found*/
+		OPTIMAL,
+		/**the objective can grow without bound*/
+		UNBOUNDED,
+		/**the iteration limit was reached before an optimal basis was found*/
+		ITERATION_LIMIT
+	}
+
+	/**Pivots between refactoring the basis inverse*/
+	private static final int REFACTOR = 50;
+	/**Degenerate pivots in a row before switching to Bland's rule*/
+	private static final int DEGENERATE_LIMIT = 50;
+	private static final double EPS = 1e-9;
+
+	private final int m;
+	private final int n;
+	private final double[][] a;
+	private final double[] b;
+	private final double[] c;
+
+	private final int[] basis;
+	private final boolean[] isBasic;
+	private final double[][] binv;
+	private final double[] xB;
+	private final double[] y;
+	private final double[] column;
+	private int maxIterations;
+	private int iterations;
+	private Status status;
+
+	/**
+	 * Create a linear program, the arrays are used without copying
+	 * @param a constraint matrix (m rows, n columns)
+	 * @param b right hand side, must be non negative
+	 * @param c objective coefficients
+	 */
+	public SimplexSolver(double[][] a, double[] b, double[] c){
+		this.m = b.length;
+		this.n = c.length;
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		basis = new int[m];
+		isBasic = new boolean[n + m];
+		binv = new double[m][m];
+		xB = new double[m];
+		y = new double[m];
+		column = new double[m];
+		maxIterations = 50 * (n + m) + 1000;
+	}
+
+	/**
+	 * Set the maximum number of pivots of a solve
+	 * @param maxIterations the limit
+	 */
+	public void setMaxIterations(int maxIterations){
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Solve from the all slack basis
+	 * @return the status
+	 */
+	public Status solve(){
+		return solve(null);
+	}
+
+	/**
+	 * Solve starting from the given basis when it is feasible, from the all slack basis otherwise
+	 * @param start m variable indices from a previous getBasis(), or null
+	 * @return the status
+	 */
+	public Status solve(int[] start){
+		iterations = 0;
+		if(start == null || start.length != m || !setBasis(start))
+			setSlackBasis();
+		int degenerate = 0;
+		int sinceRefactor = 0;
+		while(true){
+			computeDuals();
+			int q = degenerate > DEGENERATE_LIMIT ? enteringBland() : enteringDantzig();
+			if(q < 0){
+				status = Status.OPTIMAL;
+				return status;
+			}
+			if(iterations >= maxIterations){
+				status = Status.ITERATION_LIMIT;
+				return status;
+			}
+			computeColumn(q);
+			int r = leaving();
+			if(r < 0){
+				status = Status.UNBOUNDED;
+				return status;
+			}
+			degenerate = xB[r] <= EPS ? degenerate + 1 : 0;
+			pivot(r, q);
+			iterations++;
+			if(++sinceRefactor >= REFACTOR){
+				sinceRefactor = 0;
+				if(!factor()){
+					//lost the basis to round off, start over from the slacks
+					setSlackBasis();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Values of the variables x (length n) of the last solve
+	 * @return the primal solution
+	 */
+	public double[] getPrimal(){
+		double[] x = new double[n];
+		for(int i = 0; i < m; i++)
+			if(basis[i] < n)
+				x[basis[i]] = Math.max(0.0, xB[i]);
+		return x;
+	}
+
+	/**
+	 * Shadow prices of the rows (length m) of the last solve, the solution of the dual program
+	 * minimize b y subject to A<sup>T</sup> y &gt;= c, y &gt;= 0
+	 * @return the dual solution
+	 */
+	public double[] getDual(){
+		double[] d = new double[m];
+		for(int i = 0; i < m; i++)
+			d[i] = Math.max(0.0, y[i]);
+		return d;
+	}
+
+	/**
+	 * Objective value of the last solve
+	 * @return c x
+	 */
+	public double getObjective(){
+		double sum = 0.0;
+		for(int i = 0; i < m; i++)
+			if(basis[i] < n)
+				sum += c[basis[i]] * xB[i];
+		return sum;
+	}
+
+	/**
+	 * The final basis of the last solve, can be used to warm start a similar problem
+	 * @return a copy of the basic variable indices
+	 */
+	public int[] getBasis(){
+		return basis.clone();
+	}
+
+	/**
+	 * Pivots made by the last solve
+	 * @return the number of iterations
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	/**
+	 * Status of the last solve
+	 * @return the status, null before the first solve
+	 */
+	public Status getStatus(){
+		return status;
+	}
+
+	private void setSlackBasis(){
+		Arrays.fill(isBasic, false);
+		for(int i = 0; i < m; i++){
+			basis[i] = n + i;
+			isBasic[n + i] = true;
+			Arrays.fill(binv[i], 0.0);
+			binv[i][i] = 1.0;
+			xB[i] = b[i];
+		}
+	}
+
+	/**
+	 * Try to start from the given basis
+	 * @return false if it is not a valid feasible basis of this problem
+	 */
+	private boolean setBasis(int[] start){
+		Arrays.fill(isBasic, false);
+		for(int i = 0; i < m; i++){
+			int v = start[i];
+			if(v < 0 || v >= n + m || isBasic[v])
+				return false;
+			basis[i] = v;
+			isBasic[v] = true;
+		}
+		if(!factor())
+			return false;
+		for(int i = 0; i < m; i++)
+			if(xB[i] < -EPS)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Invert the basis matrix from scratch with Gauss-Jordan elimination and recompute xB
+	 * @return false when the basis is singular
+	 */
+	private boolean factor(){
+		double[][] work = new double[m][2 * m];
+		for(int i = 0; i < m; i++){
+			for(int k = 0; k < m; k++){
+				int v = basis[k];
+				work[i][k] = v < n ? a[i][v] : (v - n == i ? 1.0 : 0.0);
+			}
+			work[i][m + i] = 1.0;
+		}
+		for(int col = 0; col < m; col++){
+			int p = col;
+			for(int i = col + 1; i < m; i++)
+				if(Math.abs(work[i][col]) > Math.abs(work[p][col]))
+					p = i;
+			if(Math.abs(work[p][col]) < EPS)
+				return false;
+			double[] t = work[p];
+			work[p] = work[col];
+			work[col] = t;
+			double piv = work[col][col];
+			for(int k = 0; k < 2 * m; k++)
+				work[col][k] /= piv;
+			for(int i = 0; i < m; i++){
+				double f = work[i][col];
+				if(i != col && f != 0.0)
+					for(int k = 0; k < 2 * m; k++)
+						work[i][k] -= f * work[col][k];
+			}
+		}
+		for(int i = 0; i < m; i++){
+			System.arraycopy(work[i], m, binv[i], 0, m);
+			double sum = 0.0;
+			for(int k = 0; k < m; k++)
+				sum += binv[i][k] * b[k];
+			xB[i] = sum;
+		}
+		return true;
+	}
+
+	/**
+	 * y = c<sub>B</sub> B<sup>-1</sup>
+	 */
+	private void computeDuals(){
+		Arrays.fill(y, 0.0);
+		for(int i = 0; i < m; i++){
+			int v = basis[i];
+			double cb = v < n ? c[v] : 0.0;
+			if(cb != 0.0){
+				double[] row = binv[i];
+				for(int k = 0; k < m; k++)
+					y[k] += cb * row[k];
+			}
+		}
+	}
+
+	/**
+	 * Reduced cost c<sub>j</sub> - y a<sub>j</sub> of a variable
+	 */
+	private double reducedCost(int j){
+		if(j >= n)
+			return -y[j - n];
+		double sum = c[j];
+		for(int i = 0; i < m; i++)
+			sum -= y[i] * a[i][j];
+		return sum;
+	}
+
+	/**
+	 * Nonbasic variable with the largest reduced cost
+	 * @return the variable or -1 when the basis is optimal
+	 */
+	private int enteringDantzig(){
+		int best = -1;
+		double bestCost = EPS;
+		for(int j = 0; j < n + m; j++){
+			if(isBasic[j])
+				continue;
+			double d = reducedCost(j);
+			if(d > bestCost){
+				bestCost = d;
+				best = j;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Lowest index nonbasic variable with a positive reduced cost (cannot cycle)
+	 * @return the variable or -1 when the basis is optimal
+	 */
+	private int enteringBland(){
+		for(int j = 0; j < n + m; j++)
+			if(!isBasic[j] && reducedCost(j) > EPS)
+				return j;
+		return -1;
+	}
+
+	/**
+	 * column = B<sup>-1</sup> a<sub>q</sub>
+	 */
+	private void computeColumn(int q){
+		for(int i = 0; i < m; i++){
+			double[] row = binv[i];
+			if(q >= n){
+				column[i] = row[q - n];
+			}
+			else{
+				double sum = 0.0;
+				for(int k = 0; k < m; k++)
+					sum += row[k] * a[k][q];
+				column[i] = sum;
+			}
+		}
+	}
+
+	/**
+	 * Ratio test, ties go to the lowest basic variable index
+	 * @return the row of the leaving variable or -1 if the column is unbounded
+	 */
+	private int leaving(){
+		int r = -1;
+		double best = Double.POSITIVE_INFINITY;
+		for(int i = 0; i < m; i++){
+			if(column[i] > EPS){
+				double ratio = Math.max(0.0, xB[i]) / column[i];
+				if(ratio < best - EPS || (ratio <= best + EPS && r >= 0 && basis[i] < basis[r])){
+					best = ratio;
+					r = i;
+				}
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Replace basis[r] by q and update the inverse and xB
+	 */
+	private void pivot(int r, int q){
+		double piv = column[r];
+		double[] rowR = binv[r];
+		for(int k = 0; k < m; k++)
+			rowR[k] /= piv;
+		xB[r] /= piv;
+		for(int i = 0; i < m; i++){
+			double f = column[i];
+			if(i == r || f == 0.0)
+				continue;
+			double[] row = binv[i];
+			for(int k = 0; k < m; k++)
+				row[k] -= f * rowR[k];
+			xB[i] -= f * xB[r];
+		}
+		isBasic[basis[r]] = false;
+		basis[r] = q;
+		isBasic[q] = true;
+	}
+}
@@ -54,25 +54,85 @@ public class SolverUtils {
   public static double[] computeOutcomePayoffs(Game g, OutcomeDistribution outcomeDistribution,
                                                boolean ignoreUnsampled) {
     int nPlayers = g.getNumPlayers();
+    if (outcomeDistribution.isProduct() && g instanceof MatrixGame) {
+      return computeProductPayoffs((MatrixGame) g, outcomeDistribution);
+    }
     double[] payoffs = new double[nPlayers];
+    // flat indices of the game and the dense distribution line up, no translation needed
+    double[] probs = outcomeDistribution.getProbData();
+    MatrixGame mg = g instanceof MatrixGame ? (MatrixGame) g : null;
+    double[] data = mg == null ? null : mg.getSharedPayoffData();
+    int nProfiles = g.getNumProfiles();
 
     // loop through outcomes to compute the expected payoffs
     OutcomeIterator itr = g.iterator();
     while (itr.hasNext()) {
       int[] outcome = itr.next();
+      int index = itr.getIndex();
 
-      double prob = outcomeDistribution.getProb(outcome);
+      double prob = probs != null ? probs[index] : outcomeDistribution.getProb(outcome);
       if (prob > 0) {
         // add in this component of the payoffs
-        double[] outcomePayoffs = g.getPayoffs(outcome);
-        for (int pl = 0; pl < nPlayers; pl++) {
-          payoffs[pl] += prob * outcomePayoffs[pl];
+        if (data != null) {
+          for (int pl = 0; pl < nPlayers; pl++) {
+            payoffs[pl] += prob * data[pl * nProfiles + index];
+          }
+        } else {
+          double[] outcomePayoffs = g.getPayoffs(outcome);
+          for (int pl = 0; pl < nPlayers; pl++) {
+            payoffs[pl] += prob * outcomePayoffs[pl];
+          }
         }
       }
     }
     return payoffs;
   }
   
+  /**
+   * Expected payoffs of a product form distribution. Two player games use the bilinear kernel,
+   * larger games contract each payoff block one player at a time (last player first) so the joint
+   * distribution is never built and the work is linear in the number of outcomes.
+   * Actions with zero probability are skipped, like outcomes with zero probability in computeOutcomePayoffs.
+   *
+   * @param mg                  the game
+   * @param outcomeDistribution product form distribution over outcomes
+   * @return vector of payoffs to each player
+   */
+  public static double[] computeProductPayoffs(MatrixGame mg, OutcomeDistribution outcomeDistribution) {
+    int nPlayers = mg.getNumPlayers();
+    double[] payoffs = new double[nPlayers];
+    if (nPlayers == 2) {
+      return bilinearPayoffs(outcomeDistribution.getFactor(0), outcomeDistribution.getFactor(1), mg, payoffs);
+    }
+    double[] data = mg.getSharedPayoffData();
+    int nProfiles = mg.getNumProfiles();
+    double[] work = new double[nProfiles];
+    for (int pl = 0; pl < nPlayers; pl++) {
+      int off = mg.getOffset(pl);
+      int size = nProfiles;
+      // the last player's action is the least significant index of the block
+      for (int contract = nPlayers - 1; contract >= 0; contract--) {
+        double[] f = outcomeDistribution.getFactor(contract);
+        int n = mg.getNumActions(contract);
+        int outer = size / n;
+        for (int k = 0; k < outer; k++) {
+          double sum = 0d;
+          int base = k * n;
+          for (int a = 0; a < n; a++) {
+            double prob = f[a + 1];
+            if (prob > 0) {
+              sum += prob * (contract == nPlayers - 1 ? data[off + base + a] : work[base + a]);
+            }
+          }
+          work[k] = sum;
+        }
+        size = outer;
+      }
+      payoffs[pl] = work[0];
+    }
+    return payoffs;
+  }
+
   /**
    * Rounding an array to the nearest tenths place
    * @param a array to round
@@ -93,57 +153,175 @@ public class SolverUtils {
    * @return [player 1 expected payoff, player 2 expected payoff] (-1337) if invalid
    */
 	public static double[] expectedPayoffs(MixedStrategy s1, MixedStrategy s2, MatrixGame mg){
-		double payoffs[] = {0.0,0.0};
+		return expectedPayoffs(s1, s2, mg, new double[2]);
+	}
+
+  /**
+   * Compute Expected Payoff in 2 player game, writing into the given array
+   * @param s1 strategy for player 1
+   * @param s2 strategy for player 2
+   * @param mg matrix game being played
+   * @param result array of length 2 that receives the payoffs
+   * @return result, [player 1 expected payoff, player 2 expected payoff] (-1337) if invalid
+   */
+	public static double[] expectedPayoffs(MixedStrategy s1, MixedStrategy s2, MatrixGame mg, double[] result){
 		boolean valid1 = s1.isValid();
 		boolean valid2 = s2.isValid();
-		List<MixedStrategy> list = new ArrayList<MixedStrategy>();
-		list.add(s1);
-		list.add(s2);
-		if(s1.isValid() && s2.isValid())
-			return computeOutcomePayoffs(mg,new OutcomeDistribution(list));
-		if(!valid1 || !valid2){
-			System.out.println("Detected Invalid Strategy");
-			if(!valid1)
-				payoffs[0] = -1337.0;
-			if(!valid2)
-				payoffs[1] = -1337.0;
+		if(valid1 && valid2){
+			if(mg.getNumPlayers() == 2)
+				return bilinearPayoffs(s1.getData(), s1.getOffset(), s2.getData(), s2.getOffset(), mg, result);
+			List<MixedStrategy> list = new ArrayList<MixedStrategy>();
+			list.add(s1);
+			list.add(s2);
+			double[] payoffs = computeOutcomePayoffs(mg,new OutcomeDistribution(list));
+			result[0] = payoffs[0];
+			result[1] = payoffs[1];
+			return result;
+		}
+		System.out.println("Detected Invalid Strategy");
+		result[0] = valid1 ? 0.0 : -1337.0;
+		result[1] = valid2 ? 0.0 : -1337.0;
+		return result;
+	}
+
+	/**
+	 * Bilinear kernel for two player matrix games: computes x^T A y and x^T B y
+	 * straight from the probability and payoff arrays without allocating.
+	 * Outcomes are visited in the same order as the OutcomeIterator (row player fastest)
+	 * and outcomes with zero probability are skipped, so the sums match computeOutcomePayoffs.
+	 * @param x row player probabilities (MixedStrategy layout, actions start at 1)
+	 * @param y column player probabilities (MixedStrategy layout, actions start at 1)
+	 * @param mg two player matrix game
+	 * @param result array of length 2 that receives the payoffs
+	 * @return result
+	 */
+	public static double[] bilinearPayoffs(double[] x, double[] y, MatrixGame mg, double[] result){
+		return bilinearPayoffs(x, 0, y, 0, mg, result);
+	}
+
+	/**
+	 * Bilinear kernel reading the probabilities from inside larger arrays (see MixedStrategy.getData)
+	 * @param x array holding the row player probabilities
+	 * @param xOff index of action 0 in x
+	 * @param y array holding the column player probabilities
+	 * @param yOff index of action 0 in y
+	 * @param mg two player matrix game
+	 * @param result array of length 2 that receives the payoffs
+	 * @return result
+	 */
+	public static double[] bilinearPayoffs(double[] x, int xOff, double[] y, int yOff, MatrixGame mg, double[] result){
+		int rows = mg.getNumActions(0);
+		int cols = mg.getNumActions(1);
+		double[] data = mg.getSharedPayoffData();
+		int offB = mg.getOffset(1);
+		double a = 0.0;
+		double b = 0.0;
+		for(int col = 1; col <= cols; col++){
+			double yc = y[yOff + col];
+			if(yc == 0)
+				continue;
+			int index = col - 1;
+			for(int row = 1; row <= rows; row++, index += cols){
+				double prob = x[xOff + row] * yc;
+				if(prob > 0){
+					a += prob * data[index];
+					b += prob * data[offB + index];
+				}
+			}
 		}
-		return payoffs;
+		result[0] = a;
+		result[1] = b;
+		return result;
 	}
+	/**
+	 * Action value vector: the payoff to payoffPlayer of every pure action of player
+	 * against the opponent's mixed strategy, computed in a single matrix-vector pass
+	 * (A y for the row player, B<sup>T</sup> x for the column player).
+	 * Terms are summed in the same order as expectedPayoffs with a pure strategy, so
+	 * each entry is identical to evaluating that action on its own.
+	 * @param mg two player matrix game
+	 * @param player the player whose pure actions are evaluated
+	 * @param opponentProbs the opponent's probabilities (MixedStrategy layout, actions start at 1)
+	 * @param payoffPlayer the player whose payoff is reported
+	 * @param values receives the value of action a at index a (index 0 is unused)
+	 * @return values
+	 */
+	public static double[] computeActionValues(MatrixGame mg, int player, double[] opponentProbs, int payoffPlayer, double[] values){
+		return computeActionValues(mg, player, opponentProbs, 0, payoffPlayer, values);
+	}
+
+	/**
+	 * Action value vector reading the opponent's probabilities from inside a larger array (see MixedStrategy.getData)
+	 * @param mg two player matrix game
+	 * @param player the player whose pure actions are evaluated
+	 * @param opponentProbs array holding the opponent's probabilities
+	 * @param opponentOff index of action 0 in opponentProbs
+	 * @param payoffPlayer the player whose payoff is reported
+	 * @param values receives the value of action a at index a (index 0 is unused)
+	 * @return values
+	 */
+	public static double[] computeActionValues(MatrixGame mg, int player, double[] opponentProbs, int opponentOff, int payoffPlayer, double[] values){
+		int rows = mg.getNumActions(0);
+		int cols = mg.getNumActions(1);
+		double[] data = mg.getSharedPayoffData();
+		int off = mg.getOffset(payoffPlayer);
+		values[0] = 0.0;
+		if(player == 0){
+			for(int row = 1; row <= rows; row++){
+				double sum = 0.0;
+				int index = off + (row - 1) * cols - 1;
+				for(int col = 1; col <= cols; col++){
+					double prob = opponentProbs[opponentOff + col];
+					if(prob > 0)
+						sum += prob * data[index + col];
+				}
+				values[row] = sum;
+			}
+		}
+		else{
+			for(int col = 1; col <= cols; col++)
+				values[col] = 0.0;
+			for(int row = 1; row <= rows; row++){
+				double prob = opponentProbs[opponentOff + row];
+				if(!(prob > 0))
+					continue;
+				int index = off + (row - 1) * cols - 1;
+				for(int col = 1; col <= cols; col++)
+					values[col] += prob * data[index + col];
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Action value vector for a mixed strategy opponent
+	 * @param mg two player matrix game
+	 * @param player the player whose pure actions are evaluated
+	 * @param opponentStrat the opponent's strategy
+	 * @param payoffPlayer the player whose payoff is reported
+	 * @return the value of each action, indexed from 1
+	 */
+	public static double[] computeActionValues(MatrixGame mg, int player, MixedStrategy opponentStrat, int payoffPlayer){
+		return computeActionValues(mg, player, opponentStrat.getData(), opponentStrat.getOffset(), payoffPlayer, new double[mg.getNumActions(player) + 1]);
+	}
+
 	/**
 	 * Best response
 	 */
 	public static MixedStrategy computeBestResponse(MatrixGame mg, int player, MixedStrategy opponentStrat){
-		double[] payoffs = new double[2];
 		int actions = mg.getNumActions(player);
+		double[] values = computeActionValues(mg, player, opponentStrat, player);
 		MixedStrategy s = new MixedStrategy(actions);
 		s.setZeros();
 		double bestPay = Double.MIN_VALUE;
 		int bestAction= 1;
-		if(player == 0){
-			for(int i = 1; i <= actions; i++){
-				s.setProb(i,1);
-				payoffs = expectedPayoffs(s, opponentStrat, mg);
-				s.setZeros();
-				if(payoffs[player]> bestPay){
-					bestPay = payoffs[player];
-					bestAction = i;
-				}
-			}
-			s.setProb(bestAction,1.0);
-		}
-		else{
-			for(int i = 1; i <= actions; i++){
-				s.setProb(i,1);
-				payoffs = expectedPayoffs(opponentStrat,s, mg);
-				s.setZeros();
-				if(payoffs[player]> bestPay){
-					bestPay = payoffs[player];
-					bestAction = i;
-				}
+		for(int i = 1; i <= actions; i++){
+			if(values[i] > bestPay){
+				bestPay = values[i];
+				bestAction = i;
 			}
-			s.setProb(bestAction,1.0);
 		}
+		s.setProb(bestAction,1.0);
 		return s;
 	}
 	public static MixedStrategy computeQuantalBestResponse(MatrixGame mg, int player, MixedStrategy opponentStrat, double lambda){
@@ -151,28 +329,16 @@ public class SolverUtils {
 			System.out.println("\u03BB should be positive");
 			lambda = 0;
 		}
-		double[] payoffs = new double[2];
 		int actions = mg.getNumActions(player);
-		MixedStrategy s = new MixedStrategy(actions);
-		s.setZeros();
+		double[] values = computeActionValues(mg, player, opponentStrat, player);
 		MixedStrategy qbr = new MixedStrategy(actions);
 		qbr.setZeros();
-		//double bestPay = Double.MIN_VALUE;
-		//int bestAction= 1;
 		double sum = 0.0;
 		double temp = 0.0;
 		for(int i = 1; i <= actions; i++){
-			s.setProb(i,1);
-			if(player == 0){
-				payoffs = expectedPayoffs(s,opponentStrat,mg);		
-			}
-			else{
-				payoffs = expectedPayoffs(opponentStrat,s,mg);
-			}
-			temp = Math.exp(lambda*payoffs[player]);
+			temp = Math.exp(lambda*values[i]);
 			sum += temp;
 			qbr.setProb(i, temp);
-			s.setProb(i,0);
 		}
 		for(int i = 1; i <= actions; i++){
 			temp = qbr.getProb(i);
@@ -184,36 +350,19 @@ public class SolverUtils {
 	 * Best response
 	 */
 	public static MixedStrategy computePunishResponse(MatrixGame mg, int player, MixedStrategy opponentStrat){
-		double[] payoffs = new double[2];
 		int actions = mg.getNumActions(player);
+		double[] values = computeActionValues(mg, player, opponentStrat, 1-player);
 		MixedStrategy s = new MixedStrategy(actions);
 		s.setZeros();
 		double bestPay = Double.MAX_VALUE;
 		int bestAction= 1;
-		if(player == 0){
-			for(int i = 1; i <= actions; i++){
-				s.setProb(i,1);
-				payoffs = expectedPayoffs(s, opponentStrat, mg);
-				s.setZeros();
-				if(payoffs[1-player] < bestPay){
-					bestPay = payoffs[1-player];
-					bestAction = i;
-				}
-			}
-			s.setProb(bestAction,1.0);
-		}
-		else{
-			for(int i = 1; i <= actions; i++){
-				s.setProb(i,1);
-				payoffs = expectedPayoffs(opponentStrat,s, mg);
-				s.setZeros();
-				if(payoffs[1-player] < bestPay){
-					bestPay = payoffs[1-player];
-					bestAction = i;
-				}
+		for(int i = 1; i <= actions; i++){
+			if(values[i] < bestPay){
+				bestPay = values[i];
+				bestAction = i;
 			}
-			s.setProb(bestAction,1.0);
 		}
+		s.setProb(bestAction,1.0);
 		return s;
 	}
 
@@ -223,7 +372,6 @@ public class SolverUtils {
 			lambda = 0;
 		}
 		
-		double[] payoffs = new double[2];
 		int actions = mg.getNumActions(player);
 		MixedStrategy opponentStrat = new MixedStrategy(actions);
 		opponentStrat.setUniform();
@@ -231,18 +379,10 @@ public class SolverUtils {
 		s = SolverUtils.computeBestResponse(mg, player, opponentStrat);
 
 		double[] punishment = new double[actions];
-		opponentStrat.setZeros();
+		double[] values = computeActionValues(mg, 1-player, s, 1-player);//each opponent action
 		for(int i = 1; i <= actions; i++){
-			opponentStrat.setProb(i,1);//choose action i
-			if(player == 0){
-				payoffs = expectedPayoffs(s,opponentStrat,mg);		
-			}
-			else{
-				payoffs = expectedPayoffs(opponentStrat,s,mg);
-			}
-			opponentStrat.setProb(i,0);//reset action i
 			//punishment[i-1] = payoffs[1-player];
-			punishment[i-1] = -1*payoffs[1-player];
+			punishment[i-1] = -1*values[i];
 		}
 
 		/*double max = punishment[0];
@@ -277,7 +417,6 @@ public class SolverUtils {
 			lambda = 0;
 		}
 		
-		double[] payoffs = new double[2];
 		int actions = mg.getNumActions(player);
 		MixedStrategy myStrat = new MixedStrategy(actions);
 		myStrat.setUniform();
@@ -286,20 +425,12 @@ public class SolverUtils {
 
 		double[] punishment = new double[actions];
 		double max = -100000;
-		myStrat.setZeros();
+		double[] values = computeActionValues(mg, player, opponentStrat, 1-player);
 		for(int i = 1; i <= actions; i++){
-			myStrat.setProb(i,1);//choose action i
-			if(player == 0){
-				payoffs = expectedPayoffs(myStrat,opponentStrat,mg);
-			}
-			else{
-				payoffs = expectedPayoffs(opponentStrat,myStrat,mg);
+			if(values[i] > max){
+				max = values[i];
 			}
-			myStrat.setProb(i,0);//reset action i
-			if(payoffs[1-player] > max){
-				max = payoffs[1-player];
-			}
-			punishment[i-1] = payoffs[1-player];
+			punishment[i-1] = values[i];
 			//punishment[i-1] = -1*payoffs[1-player];
 		}
 
@@ -339,23 +470,11 @@ public class SolverUtils {
 		}
 		int actions = mg.getNumActions(player);
 		double[] brValues = new double[actions];
-		for(int i=0; i < actions; i++)
-			brValues[i] = -10000;
-		int[] outcome = {1,1};
-		for(int i=1; i<=actions; i++){
-			for(int j =1; j <=actions; j++){
-				if(player == 0){
-					outcome[0]=j;
-					outcome[1]=i;
-				}
-				else{
-					outcome[0]=i;
-					outcome[1]=j;
-				}
-				double p = mg.getPayoff(outcome, player);
-				if(p > brValues[i-1])
-					brValues[i-1] = p;
-			}
+		//best payoff against each opponent action: column maxima for the row player, row maxima for the column player
+		PayoffStatistics stats = mg.getStatistics();
+		for(int i=0; i < actions; i++){
+			double best = player == 0 ? stats.getColumnMax(player, i + 1) : stats.getRowMax(player, i + 1);
+			brValues[i] = best > -10000 ? best : -10000;
 		}
 		//System.out.println(Arrays.toString(brValues));//uncomment
 		double mostRegret = brValues[0];
@@ -383,22 +502,10 @@ public class SolverUtils {
 			lambda = 0;
 		}
 		int actions = mg.getNumActions(player);
-		MixedStrategy myStrat = new MixedStrategy(actions);
-		myStrat.setZeros();
 		MixedStrategy opponentStrat = new MixedStrategy(actions);
 		opponentStrat.setUniform();
-		double[] expected = new double[actions];
-		for(int i = 1; i <= actions; i++){
-			myStrat.setProb(i,1);
-			if (player == 0){
-				expected[i-1] = expectedPayoffs(myStrat, opponentStrat, mg)[player];
-			}
-			else{
-				expected[i-1] = expectedPayoffs(opponentStrat, myStrat, mg)[player];
-			}
-			myStrat.setProb(i,0);
-		}
-		return logit(expected, lambda);
+		double[] values = computeActionValues(mg, player, opponentStrat, player);
+		return logit(Arrays.copyOfRange(values, 1, actions + 1), lambda);
 	}
 
 	public static MixedStrategy computeAdversaryResponse(MatrixGame mg, int player, double lambda){
@@ -427,25 +534,13 @@ public class SolverUtils {
 
 
 	public static MixedStrategy computeMaxMin(MatrixGame mg, int player){
-		int[] outcome = {0,0};
 		int actions = mg.getNumActions(player);
 		double[] minimums = new double[actions];
-		double payoff = 0;
-		for(int row = 1; row <= actions; row++){
-			minimums[row-1] = Double.MAX_VALUE;
-			for(int col = 1; col <= actions; col++){
-				if(player == 0){
-					outcome[0] = row;
-					outcome[1] = col;
-				}
-				else{
-					outcome[0] = col;
-					outcome[1] = row;
-				}
-				payoff = mg.getPayoffs(outcome)[player];
-				if(minimums[row-1] > payoff)
-					minimums[row-1] = payoff;
-			}
+		//worst payoff of each of the player's actions
+		PayoffStatistics stats = mg.getStatistics();
+		for(int i = 0; i < actions; i++){
+			double worst = player == 0 ? stats.getRowMin(player, i + 1) : stats.getColumnMin(player, i + 1);
+			minimums[i] = worst < Double.MAX_VALUE ? worst : Double.MAX_VALUE;
 		}
 		int maxA = 0;
 		for(int i = 1; i < actions; i++)
@@ -458,26 +553,14 @@ public class SolverUtils {
 	}
 
 	public static MixedStrategy computeMinMax(MatrixGame mg, int player){
-		int[] outcome = {0,0};
 		int opponent = 1-player;
 		int actions = mg.getNumActions(player);
 		double[] maximums = new double[actions];
-		double payoff = 0;
-		for(int row = 1; row <= actions; row++){
-			maximums[row-1] = Double.MIN_VALUE;
-			for(int col = 1; col <= actions; col++){
-				if(opponent == 1){
-					outcome[0] = row;
-					outcome[1] = col;
-				}
-				else{
-					outcome[0] = col;
-					outcome[1] = row;
-				}
-				payoff = mg.getPayoffs(outcome)[opponent];
-				if(maximums[row-1] < payoff)
-					maximums[row-1] = payoff;
-			}
+		//opponent's best payoff against each of the player's actions
+		PayoffStatistics stats = mg.getStatistics();
+		for(int i = 0; i < actions; i++){
+			double best = opponent == 1 ? stats.getRowMax(opponent, i + 1) : stats.getColumnMax(opponent, i + 1);
+			maximums[i] = best > Double.MIN_VALUE ? best : Double.MIN_VALUE;
 		}
 		int minA = 0;
 		for(int i = 1; i < actions; i++)
@@ -489,23 +572,85 @@ public class SolverUtils {
 		return strat;
 	}
 
+	/**
+	 * Exact mixed maxmin (security) strategy of a player: maximizes the player's own payoff
+	 * against an opponent that minimizes it, solved as a linear program
+	 * @param mg two player game
+	 * @param player 0 row or 1 column
+	 * @return the maxmin strategy, uniform if the program could not be solved
+	 */
+	public static MixedStrategy computeMixedMaxMin(MatrixGame mg, int player){
+		ZeroSumSolver solver = new ZeroSumSolver();
+		solver.solve(mg, player, player);
+		return solver.getMaximizerStrategy();
+	}
+
+	/**
+	 * Exact mixed minmax strategy of a player: minimizes the best payoff the opponent can get,
+	 * solved as a linear program
+	 * @param mg two player game
+	 * @param player 0 row or 1 column
+	 * @return the minmax strategy, uniform if the program could not be solved
+	 */
+	public static MixedStrategy computeMixedMinMax(MatrixGame mg, int player){
+		ZeroSumSolver solver = new ZeroSumSolver();
+		solver.solve(mg, 1 - player, 1 - player);
+		return solver.getMinimizerStrategy();
+	}
+
+	/**
+	 * Mixed Nash equilibrium strategy of a player in a general sum two player game, found by
+	 * support enumeration for small games and Lemke-Howson otherwise
+	 * @param mg two player game
+	 * @param player 0 row or 1 column
+	 * @return the equilibrium strategy, uniform if no equilibrium was found
+	 */
+	public static MixedStrategy computeNash(MatrixGame mg, int player){
+		NashSolver solver = new NashSolver();
+		solver.solve(mg);
+		return solver.getStrategy(player);
+	}
+
+	/**
+	 * Approximate equilibrium strategy of a player found by iterating the given dynamics
+	 * @param mg two player game
+	 * @param player 0 row or 1 column
+	 * @param method fictitious play, regret matching+ or the logit QRE homotopy
+	 * @param epsilon stop once neither player can gain more than this by deviating
+	 * @return the strategy after convergence or the default iteration limit
+	 */
+	public static MixedStrategy computeIterative(MatrixGame mg, int player, IterativeSolver.Method method, double epsilon){
+		IterativeSolver solver = new IterativeSolver(method);
+		solver.setTolerance(epsilon);
+		solver.solve(mg);
+		return solver.getStrategy(player);
+	}
+
+	/**
+	 * Logit quantal response equilibrium strategy of a player, followed from lambda 0 up to lambda
+	 * @param mg two player game
+	 * @param player 0 row or 1 column
+	 * @param lambda precision of the logit responses
+	 * @return the strategy at lambda (or the largest lambda reached within the iteration limit)
+	 */
+	public static MixedStrategy computeQuantalEquilibrium(MatrixGame mg, int player, double lambda){
+		IterativeSolver solver = new IterativeSolver(IterativeSolver.Method.LOGIT_QRE);
+		solver.setTolerance(0);
+		solver.setTargetLambda(lambda);
+		solver.solve(mg);
+		return solver.getStrategy(player);
+	}
+
 	public static MixedStrategy computeNemesis(MatrixGame mg, int player, MixedStrategy playerStrat){
-		double[] payoffs = new double[2];
-		int actions = mg.getNumActions(player);
-		//MixedStrategy opponentStrat = new MixedStrategy(actions);
+		int actions = mg.getNumActions(1-player);
+		double[] values = computeActionValues(mg, 1-player, playerStrat, player);
 		MixedStrategy s = new MixedStrategy(actions);
 		s.setZeros();
 		double worstPay = Double.MAX_VALUE;
 		int worstAction= 1;
 		for(int i = 1; i <= actions; i++){
-			s.setProb(i,1);
-			if(player == 0)
-				payoffs = expectedPayoffs(playerStrat, s, mg);
-			else
-				payoffs = expectedPayoffs(s, playerStrat, mg);
-			s.setZeros();
-			if(payoffs[player]< worstPay){
-				worstPay = payoffs[player];
+			if(values[i]< worstPay){
+				worstPay = values[i];
 				worstAction = i;
 			}
 		}
@@ -0,0 +1,125 @@
+package util;
+
+import java.util.Random;
+
+/**
+ * Unsynchronized pseudo random generator (xoshiro256**, seeded with SplitMix64) for one thread.
+ * It extends Random so it can be given to anything that takes a Random, but unlike Random (which
+ * updates an AtomicLong on every draw) and RandomNumberGenerator (whose methods are synchronized)
+ * it never touches shared state, so threads that each draw from their own generator do not slow
+ * each other down. split() derives an independent generator for another thread or task.
+ * <p>
+ * A generator is not thread safe, use one per thread (see RandomStreams).
+ * </p>
+ */
+public class SplitRandom extends Random {
+
+	private static final long serialVersionUID = 7394617834185629551L;
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	private long s0;
+	private long s1;
+	private long s2;
+	private long s3;
+	private double nextGaussian;
+	private boolean haveNextGaussian;
+
+	/**
+	 * Create a generator
+	 * @param seed any value, generators with the same seed draw the same numbers
+	 */
+	public SplitRandom(long seed){
+		super(seed);//calls setSeed
+	}
+
+	/**
+	 * Reset the generator
+	 * @param seed any value, generators with the same seed draw the same numbers
+	 */
+	@Override
+	public void setSeed(long seed){
+		//the four words of state are consecutive SplitMix64 outputs, never all zero
+		s0 = mix(seed += GOLDEN);
+		s1 = mix(seed += GOLDEN);
+		s2 = mix(seed += GOLDEN);
+		s3 = mix(seed + GOLDEN);
+		haveNextGaussian = false;
+	}
+
+	/**
+	 * SplitMix64 finalizer, a bijection that spreads every input bit over the output
+	 * @param z the value
+	 * @return the mixed value
+	 */
+	static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long nextLong(){
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	@Override
+	protected int next(int bits){
+		return (int)(nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt(){
+		return (int)(nextLong() >>> 32);
+	}
+
+	@Override
+	public double nextDouble(){
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public float nextFloat(){
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	@Override
+	public boolean nextBoolean(){
+		return nextLong() < 0;
+	}
+
+	@Override
+	public double nextGaussian(){
+		//same polar method as Random, without its lock
+		if(haveNextGaussian){
+			haveNextGaussian = false;
+			return nextGaussian;
+		}
+		double v1, v2, s;
+		do{
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		}while(s >= 1 || s == 0);
+		double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+		nextGaussian = v2 * multiplier;
+		haveNextGaussian = true;
+		return v1 * multiplier;
+	}
+
+	/**
+	 * New generator whose numbers are independent of this one's, e.g. for a task run on another
+	 * thread. Advances this generator.
+	 * @return the new generator
+	 */
+	public SplitRandom split(){
+		return new SplitRandom(mix(nextLong()) ^ nextLong());
+	}
+}
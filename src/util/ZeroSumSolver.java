@@ -0,0 +1,139 @@
+package util;
+
+import java.util.Arrays;
+
+import games.*;
+
+/**
+ * Exact mixed maxmin and minmax strategies of two player matrix games, solved as a linear
+ * program with {@link SimplexSolver}. For the payoffs M of the maximizing player (rows are the
+ * maximizer's actions, columns the minimizer's) the payoffs are shifted to M' = M - min + 1 &gt; 0 and
+ * <pre>
+ *   maximize sum v  subject to  M' v &lt;= 1,  v &gt;= 0
+ * </pre>
+ * is solved. The game value is 1/sum v (shifted back), the minimizer's strategy is v scaled by
+ * the value and the maximizer's strategy is the vector of shadow prices scaled the same way.
+ * <p>
+ * With warm starting on (see setWarmStart) the solver remembers the final basis of the last game
+ * it solved and starts the next game of the same size from it, which usually saves most of the
+ * pivots on obfuscated copies of a game. The strategies found then depend on the games solved
+ * before (degenerate games have several optimal bases, and even the same basis can differ in the
+ * last bits), so it is off by default and must stay off for agents whose strategies are cached.
+ * A solver is not thread safe, give every agent (or worker) its own.
+ * </p>
+ */
+public class ZeroSumSolver {
+
+	private boolean warmStart = false;
+	private int[] lastBasis;
+	private int lastRows;
+	private int lastCols;
+
+	private double value;
+	private MixedStrategy maximizer;
+	private MixedStrategy minimizer;
+	private int iterations;
+
+	/**
+	 * Solve the game where player maximizes the payoffs of payoffPlayer and the other player minimizes them.
+	 * For a zero sum game (or a player's security strategy) payoffPlayer is the maximizing player.
+	 * @param mg two player game
+	 * @param player the maximizing player (0 row, 1 column)
+	 * @param payoffPlayer whose payoffs are the objective
+	 * @return false if the linear program could not be solved, the strategies are then uniform
+	 */
+	public boolean solve(MatrixGame mg, int player, int payoffPlayer){
+		int rows = mg.getNumActions(player);
+		int cols = mg.getNumActions(1 - player);
+		double min = mg.getStatistics().getMin(payoffPlayer);
+		double shift = 1.0 - min;
+		double[][] a = new double[rows][cols];
+		for(int i = 1; i <= rows; i++)
+			for(int j = 1; j <= cols; j++){
+				double p = player == 0 ? mg.getPayoff(i, j, payoffPlayer) : mg.getPayoff(j, i, payoffPlayer);
+				a[i-1][j-1] = p + shift;
+			}
+		double[] b = new double[rows];
+		double[] c = new double[cols];
+		Arrays.fill(b, 1.0);
+		Arrays.fill(c, 1.0);
+		SimplexSolver lp = new SimplexSolver(a, b, c);
+		boolean warm = warmStart && lastBasis != null && lastRows == rows && lastCols == cols;
+		SimplexSolver.Status status = lp.solve(warm ? lastBasis : null);
+		iterations = lp.getIterations();
+		maximizer = new MixedStrategy(rows);
+		minimizer = new MixedStrategy(cols);
+		double total = lp.getObjective();
+		if(status != SimplexSolver.Status.OPTIMAL || !(total > 0) || Double.isInfinite(min)){
+			lastBasis = null;
+			value = Double.NaN;
+			return false;
+		}
+		lastBasis = lp.getBasis();
+		lastRows = rows;
+		lastCols = cols;
+		double shiftedValue = 1.0 / total;
+		value = shiftedValue - shift;
+		setStrategy(minimizer, lp.getPrimal(), shiftedValue);
+		setStrategy(maximizer, lp.getDual(), shiftedValue);
+		return true;
+	}
+
+	/**
+	 * Scale the LP solution into a strategy and remove the round off
+	 */
+	private static void setStrategy(MixedStrategy ms, double[] x, double scale){
+		for(int i = 0; i < x.length; i++)
+			ms.setProb(i + 1, x[i] * scale);
+		ms.normalize();
+	}
+
+	/**
+	 * Value of the last game for the maximizing player
+	 * @return the value, NaN if the last solve failed
+	 */
+	public double getValue(){
+		return value;
+	}
+
+	/**
+	 * Maxmin strategy of the maximizing player of the last game
+	 * @return the strategy
+	 */
+	public MixedStrategy getMaximizerStrategy(){
+		return maximizer;
+	}
+
+	/**
+	 * Minmax strategy of the minimizing player of the last game
+	 * @return the strategy
+	 */
+	public MixedStrategy getMinimizerStrategy(){
+		return minimizer;
+	}
+
+	/**
+	 * Simplex pivots used by the last solve
+	 * @return the number of iterations
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	/**
+	 * Start every game from the basis of the last game of the same size instead of from scratch
+	 * @param warmStart true to warm start, false (the default) for results that depend only on the game
+	 */
+	public void setWarmStart(boolean warmStart){
+		this.warmStart = warmStart;
+		if(!warmStart)
+			lastBasis = null;
+	}
+
+	/**
+	 * Forget the warm start basis
+	 */
+	public void reset(){
+		lastBasis = null;
+	}
+}